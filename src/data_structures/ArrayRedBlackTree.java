@@ -0,0 +1,808 @@
+package data_structures;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import interfaces.RedBlackI;
+
+/**
+ * The ArrayRedBlackTree is a RedBlackTree whose nodes are not objects but slots in parallel
+ * arrays. Node i has its key in keys[i], its children in left[i] and right[i], the number of
+ * nodes below it in count[i], and its parent, side and color packed into meta[i]:
+ * <pre>
+ * meta[i] = parent &lt;&lt; 2 | leftChild &lt;&lt; 1 | black
+ * </pre>
+ * Slot 0 is the missing node (null in the RedBlackTree), it is black and has a count of 0.
+ * The slots of removed nodes are kept on a free list, linked through left, and reused.
+ * <p>
+ * A node takes 16 bytes in the int arrays plus two references, instead of an object with
+ * a header, five references, two booleans and a count. The links are ints in a few large
+ * arrays, so the tree adds little work for the garbage collector, but every level of a
+ * walk down the tree still reads the key object to compare it.
+ *
+ * @param <K> The key for entries in the tree
+ * @param <V> The value for entries in the tree
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ArrayRedBlackTree<K, V> implements RedBlackI<K, V> {
+
+    private static final int NIL = 0;
+    private static final int BLACK = 1;
+    private static final int LEFT = 2;
+
+    private Object[] keys, values;
+    private int[] left, right, count, meta;
+    private int root, size, next, free;
+    private int modCount;
+
+    /**
+     * ArrayRedBlackTree constructor
+     */
+    public ArrayRedBlackTree() {
+        this(16);
+    }
+
+    /**
+     * ArrayRedBlackTree constructor
+     *
+     * @param capacity the number of nodes to make room for
+     */
+    public ArrayRedBlackTree(int capacity) {
+        int length = Math.max(capacity, 1) + 1;
+
+        keys = new Object[length];
+        values = new Object[length];
+        left = new int[length];
+        right = new int[length];
+        count = new int[length];
+        meta = new int[length];
+
+        meta[NIL] = BLACK;
+        root = NIL;
+        size = 0;
+        next = 1;
+        free = NIL;
+    }
+
+    /**
+     * The method to add to the RBTree.  It will not allow duplicate additions.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     */
+    @SuppressWarnings("unchecked")
+    public void add(K key, V value) {
+        if (root == NIL) {
+            root = allocate(key, value);
+            meta[root] = BLACK;
+            size++;
+            modCount++;
+            return;
+        }
+
+        Comparable<K> k = (Comparable<K>) key;
+        int parent = root, cmp;
+
+        while (true) {
+            cmp = k.compareTo((K) keys[parent]);
+            if (cmp == 0) {
+                // The key is already there, the nodes above it did not get a key after all
+                for (int n = parent(parent); n != NIL; n = parent(n))
+                    count[n]--;
+                return;
+            }
+
+            // Every node on the way down counts the new key
+            count[parent]++;
+            int child = cmp < 0 ? left[parent] : right[parent];
+            if (child == NIL)
+                break;
+            parent = child;
+        }
+
+        int node = allocate(key, value);
+        link(parent, node, cmp < 0);
+
+        size++;
+        modCount++;
+        correctAdd(node);
+    }
+
+    /**
+     * Removes the key and its value from the RBTree.
+     *
+     * @param key the key to remove
+     * @return true if the key was found and removed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(K key) {
+        // Every node above the removed node loses one key, which is
+        // counted on the way down and undone if the key is not there
+        int node = root, last = NIL;
+        while (node != NIL) {
+            int cmp = ((Comparable<K>) key).compareTo((K) keys[node]);
+            if (cmp == 0)
+                break;
+
+            count[node]--;
+            last = node;
+            node = cmp < 0 ? left[node] : right[node];
+        }
+
+        if (node == NIL) {
+            for (int n = last; n != NIL; n = parent(n))
+                count[n]++;
+            return false;
+        }
+
+        // A node with two children takes the place of its successor,
+        // which has at most one child
+        if (left[node] != NIL && right[node] != NIL) {
+            count[node]--;
+            int successor = right[node];
+            while (left[successor] != NIL) {
+                count[successor]--;
+                successor = left[successor];
+            }
+
+            keys[node] = keys[successor];
+            values[node] = values[successor];
+            node = successor;
+        }
+
+        int child = left[node] != NIL ? left[node] : right[node];
+
+        count[node] = 0;
+
+        if (child != NIL) {
+            // The only child of a node is always red
+            link(parent(node), child, isLeft(node));
+            meta[child] |= BLACK;
+        } else if (parent(node) == NIL)
+            root = NIL;
+        else {
+            // Fix the tree while the removed leaf still holds its place
+            if (isBlack(node))
+                correctRemove(node);
+
+            if (isLeft(node))
+                left[parent(node)] = NIL;
+            else
+                right[parent(node)] = NIL;
+        }
+
+        release(node);
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Tests whether the RBTree contains the key
+     *
+     * @param key the key to look for
+     * @return whether the key is found
+     */
+    public boolean contains(K key) {
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * Get the value associated with a given key
+     *
+     * @param key the key to get the value for
+     * @return the current value
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(K key) {
+        return (V) values[findNode(key)];
+    }
+
+    /**
+     * Returns the number of elements in the RBTree
+     *
+     * @return the number of elements in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the RBTree is empty
+     *
+     * @return true if the tree is empty
+     * false if the tree is not empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The height of the tree. Recall that a tree with
+     * only a root node has height 0
+     *
+     * @return the height of the tree at the root node
+     */
+    public int height() {
+        if (root == NIL)
+            return 0;
+
+        return height(root) - 1;
+    }
+
+    private int height(int node) {
+        if (node == NIL)
+            return 0;
+
+        return Math.max(height(left[node]), height(right[node])) + 1;
+    }
+
+    /**
+     * Returns the smallest key in the RBTree
+     *
+     * @return the first key, or null if the tree is empty
+     */
+    @SuppressWarnings("unchecked")
+    public K first() {
+        return (K) keys[firstNode()];
+    }
+
+    /**
+     * Returns the largest key in the RBTree
+     *
+     * @return the last key, or null if the tree is empty
+     */
+    @SuppressWarnings("unchecked")
+    public K last() {
+        int node = root;
+        if (node == NIL)
+            return null;
+
+        while (right[node] != NIL)
+            node = right[node];
+        return (K) keys[node];
+    }
+
+    /**
+     * Returns the largest key less than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the floor key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public K floor(K key) {
+        int node = root, floor = NIL;
+
+        while (node != NIL) {
+            int cmp = ((Comparable<K>) key).compareTo((K) keys[node]);
+            if (cmp == 0)
+                return (K) keys[node];
+
+            if (cmp > 0) {
+                floor = node;
+                node = right[node];
+            } else
+                node = left[node];
+        }
+
+        return (K) keys[floor];
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the ceiling key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public K ceiling(K key) {
+        return (K) keys[ceilingNode(key)];
+    }
+
+    /**
+     * An iterator for the keys from from, inclusive, to to, exclusive,
+     * in order. The keys are found as the iterator advances.
+     *
+     * @param from the lowest key
+     * @param to   the key to stop before
+     * @return an iterator over the keys in the range
+     */
+    public Iterator<K> subMap(K from, K to) {
+        return new IteratorHelper(ceilingNode(from), to);
+    }
+
+    /**
+     * Returns the number of keys in the RBTree that are less than the key
+     *
+     * @param key the key to rank, which does not have to be in the tree
+     * @return the number of smaller keys
+     */
+    public int rank(K key) {
+        return rank(key, false);
+    }
+
+    /**
+     * Returns the key with the given rank, the smallest key has rank 0
+     *
+     * @param index the rank of the key
+     * @return the key
+     * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+     */
+    @SuppressWarnings("unchecked")
+    public K select(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        int node = root;
+
+        while (true) {
+            int smaller = count[left[node]];
+            if (index == smaller)
+                return (K) keys[node];
+
+            if (index < smaller)
+                node = left[node];
+            else {
+                index -= smaller + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys from lo to hi, both inclusive
+     *
+     * @param lo the lowest key
+     * @param hi the highest key
+     * @return the number of keys in the range
+     */
+    public int countBetween(K lo, K hi) {
+        return Math.max(rank(hi, true) - rank(lo, false), 0);
+    }
+
+    /**
+     * An iterator for all the keys in the RBTree. This will
+     * iterate over the keys using In-Order Traversal. The keys are
+     * found as the iterator advances, and the iterator fails if the
+     * tree is changed while it is used.
+     *
+     * @see java.lang.Iterable#iterator()
+     */
+    public Iterator<K> iterator() {
+        return new IteratorHelper(firstNode(), null);
+    }
+
+    /**
+     * Recursively print the tree. This method should print the
+     * entire tree using In-order Traversal to the standard
+     * output (i.e. using System.out.println or System.out.print).
+     * You can print the tree one node per line, and use periods to
+     * note the hierarchy of the tree.
+     */
+    public void print() {
+        print(root, 0);
+    }
+
+    private void print(int node, int width) {
+        if (node == NIL)
+            return;
+
+        print(left[node], width + 1);
+
+        for (int i = 0; i < width; i++)
+            System.out.print(".");
+
+        String color;
+        if (isBlack(node))
+            color = "black";
+        else
+            color = "red";
+
+        if (node == root)
+            System.out.println(keys[node] + " : " + color + " (root)");
+        else
+            System.out.println(keys[node] + " : " + color);
+
+        print(right[node], width + 1);
+    }
+
+    /**
+     * Check the number of black nodes on each side and check if
+     * they are the same. A red node with a red child is also reported.
+     *
+     * @return number of black nodes on every path
+     * @throws IllegalStateException if the tree is not a valid red black tree
+     */
+    public int blackNodes() {
+        return blackNodes(root);
+    }
+
+    private int blackNodes(int node) {
+        if (node == NIL)
+            return 1;
+        int rightBlackNodes = blackNodes(right[node]);
+        int leftBlackNodes = blackNodes(left[node]);
+        if (rightBlackNodes != leftBlackNodes)
+            throw new IllegalStateException("The paths below " + keys[node] + " have different numbers of black nodes");
+        if (!isBlack(node) && (!isBlack(left[node]) || !isBlack(right[node])))
+            throw new IllegalStateException("The red node " + keys[node] + " has a red child");
+
+        return isBlack(node) ? leftBlackNodes + 1 : leftBlackNodes;
+    }
+
+    /**
+     * The method corrects a red node with a red parent, from the new node
+     * up. A red uncle is recolored, which can move the violation up to the
+     * grandparent. A black uncle is fixed with a rotation, which ends the
+     * correction.
+     *
+     * @param node (the new node)
+     */
+    private void correctAdd(int node) {
+        while (node != root && !isBlack(parent(node))) {
+            int parent = parent(node);
+            int grandparent = parent(parent);
+
+            if (isLeft(parent)) {
+                int uncle = right[grandparent];
+
+                if (!isBlack(uncle)) {
+                    meta[parent] |= BLACK;
+                    meta[uncle] |= BLACK;
+                    meta[grandparent] &= ~BLACK;
+                    node = grandparent;
+                    continue;
+                }
+
+                if (!isLeft(node)) {
+                    leftRotate(parent);
+                    parent = node;
+                }
+
+                meta[parent] |= BLACK;
+                meta[grandparent] &= ~BLACK;
+                rightRotate(grandparent);
+            } else {
+                int uncle = left[grandparent];
+
+                if (!isBlack(uncle)) {
+                    meta[parent] |= BLACK;
+                    meta[uncle] |= BLACK;
+                    meta[grandparent] &= ~BLACK;
+                    node = grandparent;
+                    continue;
+                }
+
+                if (isLeft(node)) {
+                    rightRotate(parent);
+                    parent = node;
+                }
+
+                meta[parent] |= BLACK;
+                meta[grandparent] &= ~BLACK;
+                leftRotate(grandparent);
+            }
+            break;
+        }
+
+        meta[root] |= BLACK;
+    }
+
+    /**
+     * The method corrects the tree after a black node is removed. The
+     * path through the node is one black node short.
+     *
+     * @param node (the node with the missing black)
+     */
+    private void correctRemove(int node) {
+        while (node != root && isBlack(node)) {
+            int parent = parent(node);
+
+            if (isLeft(node)) {
+                int sibling = right[parent];
+
+                if (!isBlack(sibling)) {
+                    meta[sibling] |= BLACK;
+                    meta[parent] &= ~BLACK;
+                    leftRotate(parent);
+                    sibling = right[parent];
+                }
+
+                if (isBlack(left[sibling]) && isBlack(right[sibling])) {
+                    meta[sibling] &= ~BLACK;
+                    node = parent;
+                } else {
+                    if (isBlack(right[sibling])) {
+                        meta[left[sibling]] |= BLACK;
+                        meta[sibling] &= ~BLACK;
+                        rightRotate(sibling);
+                        sibling = right[parent];
+                    }
+
+                    meta[sibling] = meta[sibling] & ~BLACK | meta[parent] & BLACK;
+                    meta[parent] |= BLACK;
+                    meta[right[sibling]] |= BLACK;
+                    leftRotate(parent);
+                    node = root;
+                }
+            } else {
+                int sibling = left[parent];
+
+                if (!isBlack(sibling)) {
+                    meta[sibling] |= BLACK;
+                    meta[parent] &= ~BLACK;
+                    rightRotate(parent);
+                    sibling = left[parent];
+                }
+
+                if (isBlack(left[sibling]) && isBlack(right[sibling])) {
+                    meta[sibling] &= ~BLACK;
+                    node = parent;
+                } else {
+                    if (isBlack(left[sibling])) {
+                        meta[right[sibling]] |= BLACK;
+                        meta[sibling] &= ~BLACK;
+                        leftRotate(sibling);
+                        sibling = left[parent];
+                    }
+
+                    meta[sibling] = meta[sibling] & ~BLACK | meta[parent] & BLACK;
+                    meta[parent] |= BLACK;
+                    meta[left[sibling]] |= BLACK;
+                    rightRotate(parent);
+                    node = root;
+                }
+            }
+        }
+
+        meta[node] |= BLACK;
+    }
+
+    /**
+     * The method does a left rotation along the given node
+     *
+     * @param node (node to rotate)
+     */
+    private void leftRotate(int node) {
+        int temp = right[node];
+
+        right[node] = left[temp];
+        if (left[temp] != NIL)
+            link(node, left[temp], false);
+
+        link(parent(node), temp, isLeft(node));
+        link(temp, node, true);
+
+        count[temp] = count[node];
+        count[node] = count[left[node]] + count[right[node]] + 1;
+    }
+
+    /**
+     * The method does a right rotation along the given node
+     *
+     * @param node (node to rotate)
+     */
+    private void rightRotate(int node) {
+        int temp = left[node];
+
+        left[node] = right[temp];
+        if (right[temp] != NIL)
+            link(node, right[temp], true);
+
+        link(parent(node), temp, isLeft(node));
+        link(temp, node, false);
+
+        count[temp] = count[node];
+        count[node] = count[left[node]] + count[right[node]] + 1;
+    }
+
+    /**
+     * Make child the left or right child of parent, or the root if
+     * parent is NIL. The color of the child is kept.
+     */
+    private void link(int parent, int child, boolean asLeft) {
+        if (parent == NIL) {
+            root = child;
+            meta[child] &= BLACK;
+            return;
+        }
+
+        if (asLeft)
+            left[parent] = child;
+        else
+            right[parent] = child;
+
+        meta[child] = parent << 2 | (asLeft ? LEFT : 0) | meta[child] & BLACK;
+    }
+
+    private int parent(int node) {
+        return meta[node] >>> 2;
+    }
+
+    private boolean isLeft(int node) {
+        return (meta[node] & LEFT) != 0;
+    }
+
+    private boolean isBlack(int node) {
+        return (meta[node] & BLACK) != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int findNode(K key) {
+        int node = root;
+
+        while (node != NIL) {
+            int cmp = ((Comparable<K>) key).compareTo((K) keys[node]);
+            if (cmp == 0)
+                return node;
+            node = cmp < 0 ? left[node] : right[node];
+        }
+
+        return NIL;
+    }
+
+    private int firstNode() {
+        int node = root;
+        if (node == NIL)
+            return NIL;
+
+        while (left[node] != NIL)
+            node = left[node];
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int ceilingNode(K key) {
+        int node = root, ceiling = NIL;
+
+        while (node != NIL) {
+            int cmp = ((Comparable<K>) key).compareTo((K) keys[node]);
+            if (cmp == 0)
+                return node;
+
+            if (cmp < 0) {
+                ceiling = node;
+                node = left[node];
+            } else
+                node = right[node];
+        }
+
+        return ceiling;
+    }
+
+    /**
+     * Returns the node with the next larger key, found through the
+     * right subtree or, without one, the parent links
+     */
+    private int successor(int node) {
+        if (right[node] != NIL) {
+            node = right[node];
+            while (left[node] != NIL)
+                node = left[node];
+            return node;
+        }
+
+        while (parent(node) != NIL && !isLeft(node))
+            node = parent(node);
+        return parent(node);
+    }
+
+    /**
+     * Count the keys less than the key, or less than or equal to it,
+     * using the number of keys below every node on the way down
+     */
+    @SuppressWarnings("unchecked")
+    private int rank(K key, boolean inclusive) {
+        int node = root, rank = 0;
+
+        while (node != NIL) {
+            int cmp = ((Comparable<K>) key).compareTo((K) keys[node]);
+
+            if (cmp == 0)
+                return rank + count[left[node]] + (inclusive ? 1 : 0);
+
+            if (cmp < 0)
+                node = left[node];
+            else {
+                rank += count[left[node]] + 1;
+                node = right[node];
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Take a slot from the free list, or the next unused slot
+     */
+    private int allocate(K key, V value) {
+        int node;
+
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (next == keys.length)
+                grow();
+            node = next++;
+        }
+
+        keys[node] = key;
+        values[node] = value;
+        left[node] = right[node] = NIL;
+        count[node] = 1;
+        meta[node] = 0;
+        return node;
+    }
+
+    /**
+     * Put the slot on the free list
+     */
+    private void release(int node) {
+        keys[node] = values[node] = null;
+        left[node] = free;
+        right[node] = NIL;
+        count[node] = 0;
+        meta[node] = 0;
+        free = node;
+    }
+
+    private void grow() {
+        int length = keys.length + (keys.length >> 1) + 1;
+
+        keys = Arrays.copyOf(keys, length);
+        values = Arrays.copyOf(values, length);
+        left = Arrays.copyOf(left, length);
+        right = Arrays.copyOf(right, length);
+        count = Arrays.copyOf(count, length);
+        meta = Arrays.copyOf(meta, length);
+    }
+
+    /**
+     * An in order walk from node to successor node through the parent
+     * links, in constant memory
+     */
+    class IteratorHelper implements Iterator<K> {
+
+        int next;
+        K to;
+        int expectedModCount;
+
+        /**
+         * @param from the first node, or NIL for none
+         * @param to   the key to stop before, or null to run to the end
+         */
+        public IteratorHelper(int from, K to) {
+            this.to = to;
+            next = from;
+            expectedModCount = modCount;
+            checkEnd();
+        }
+
+        public boolean hasNext() {
+            return next != NIL;
+        }
+
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            K key = (K) keys[next];
+            next = successor(next);
+            checkEnd();
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void checkEnd() {
+            if (to != null && next != NIL && ((Comparable<K>) keys[next]).compareTo(to) >= 0)
+                next = NIL;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package data_structures;
+
+/**
+ * A Bloom filter is a compact set that can only answer "maybe" or "no". Every element sets
+ * a few bits chosen by its hash code, and an element whose bits are not all set was never
+ * added. An element whose bits are all set was probably added, with a false positive rate
+ * that is chosen when the filter is created. Elements can not be removed.
+ * <p>
+ * The bit positions come from two hashes of the element's hashCode (double hashing),
+ * so the element is only asked for its hash code once.
+ *
+ * @param <E> The type of elements in the filter
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class BloomFilter<E> {
+
+    private long[] bits;
+    private int numBits, numHashes, count, expected;
+    private double falsePositiveRate;
+
+    /**
+     * BloomFilter constructor. The number of bits and hashes is chosen so that
+     * the filter has the given false positive rate when it holds the expected
+     * number of elements.
+     *
+     * @param expected          the expected number of elements
+     * @param falsePositiveRate the wanted false positive rate, between 0 and 1
+     */
+    public BloomFilter(int expected, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+
+        this.expected = Math.max(expected, 1);
+        this.falsePositiveRate = falsePositiveRate;
+
+        double m = -this.expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        numBits = (int) Math.min(Math.max(Math.ceil(m / 64) * 64, 64), Integer.MAX_VALUE - 63);
+        numHashes = (int) Math.max(1, Math.round((double) numBits / this.expected * Math.log(2)));
+        bits = new long[(numBits + 63) / 64];
+    }
+
+    /**
+     * Add an element to the filter
+     *
+     * @param e the element to add
+     */
+    public void add(E e) {
+        int h = e.hashCode();
+        long h1 = mix(h) & 0xFFFFFFFFL;
+        long h2 = mix(h ^ 0x5BD1E995) & 0xFFFFFFFFL | 1;
+
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) ((h1 + i * h2) % numBits);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+
+        count++;
+    }
+
+    /**
+     * Test whether the element might be in the filter
+     *
+     * @param e the element to look for
+     * @return false if the element was never added, true if it probably was
+     */
+    public boolean mightContain(E e) {
+        int h = e.hashCode();
+        long h1 = mix(h) & 0xFFFFFFFFL;
+        long h2 = mix(h ^ 0x5BD1E995) & 0xFFFFFFFFL | 1;
+
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) ((h1 + i * h2) % numBits);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of elements added to the filter
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of elements the filter was sized for
+     *
+     * @return the expected number of elements
+     */
+    public int getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the false positive rate the filter was sized for
+     *
+     * @return the wanted false positive rate
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Returns the false positive rate for the number of elements that
+     * are in the filter now
+     *
+     * @return the current false positive rate
+     */
+    public double currentFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) numHashes * count / numBits), numHashes);
+    }
+
+    /**
+     * Returns the number of hashes, the bits set for every element
+     *
+     * @return the number of hashes
+     */
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Returns the memory used by the bits of the filter
+     *
+     * @return the size of the filter in bytes
+     */
+    public long sizeInBytes() {
+        return (long) bits.length * 8;
+    }
+
+    /**
+     * Make the filter empty
+     */
+    public void makeEmpty() {
+        for (int i = 0; i < bits.length; i++)
+            bits[i] = 0;
+
+        count = 0;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,251 @@
+package data_structures;
+
+import interfaces.HashI;
+
+/**
+ * The Cache keeps the most recently used values of a larger dictionary, so that repeated
+ * lookups of a small hot set do not reach the dictionary. It holds at most a fixed number of
+ * entries and evicts the least recently used one (LRU) when it is full. Every entry can also
+ * expire after a time to live, like the TTL of a DNS answer.
+ * <p>
+ * The entries are found through a Hash and kept in a doubly linked list in order of use, the
+ * most recently used entry first. A hit moves its entry to the front of the list and an
+ * eviction takes the entry at the back, both in constant time. The eviction policy is always
+ * LRU, it can not be chosen by the caller.
+ * <p>
+ * The methods are synchronized, because even a lookup changes the order of the list. A miss
+ * only holds the lock to look in the cache and to add the value afterwards, the dictionary is
+ * read without it, so misses on several threads do not wait for each other. The dictionary
+ * must therefore allow several readers at once, like a ConcurrentHash, or a HashI after
+ * prepareForReaders that is not changed while the cache is used. Two threads that miss the
+ * same key both read it, and the second one replaces the value the first one added.
+ *
+ * @param <K> The key for entries in the cache
+ * @param <V> The value for entries in the cache
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class Cache<K, V> {
+
+    // Largest table made by the constructor, about 8 MB of buckets
+    private static final int MAX_INITIAL = 1 << 21;
+
+    private HashI<K, V> table;
+    private Hash<K, Entry<K, V>> entries;
+    private Entry<K, V> head, tail;
+    private int capacity;
+    private long ttl;
+    private long hits, misses, evictions, expirations;
+
+    /**
+     * Cache constructor
+     *
+     * @param table     the dictionary behind the cache
+     * @param capacity  the maximum number of entries in the cache
+     * @param ttlMillis how long an entry stays valid, in milliseconds, 0 for ever
+     */
+    public Cache(HashI<K, V> table, int capacity, long ttlMillis) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be at least 1");
+
+        this.table = table;
+        this.capacity = capacity;
+        ttl = ttlMillis;
+        // The table grows with the entries, so a large capacity is not allocated up front
+        entries = new Hash<K, Entry<K, V>>((int) Math.min(capacity * 4L / 3 + 1, MAX_INITIAL));
+        head = tail = null;
+    }
+
+    /**
+     * Returns the value associated with the key, from the cache if it is
+     * there and otherwise from the dictionary. A value found in the
+     * dictionary is added to the cache.
+     *
+     * @param key the key to find the value for
+     * @return the value, or null if the key is not in the dictionary
+     */
+    public V getValue(K key) {
+        synchronized (this) {
+            Entry<K, V> e = entries.getValue(key);
+
+            if (e != null && e.expires != 0 && System.nanoTime() - e.expires > 0) {
+                remove(e);
+                expirations++;
+                e = null;
+            }
+
+            if (e != null) {
+                hits++;
+                unlink(e);
+                addFirst(e);
+                return e.value;
+            }
+
+            misses++;
+        }
+
+        // The dictionary is read without the lock, so misses do not wait for each other
+        V value = table.getValue(key);
+        if (value != null)
+            put(key, value, ttl);
+
+        return value;
+    }
+
+    /**
+     * Add a value to the cache, or replace the cached value of the key.
+     * The dictionary is not changed.
+     *
+     * @param key       the key
+     * @param value     the value
+     * @param ttlMillis how long the entry stays valid, in milliseconds, 0 for ever
+     */
+    public synchronized void put(K key, V value, long ttlMillis) {
+        Entry<K, V> e = entries.getValue(key);
+
+        if (e != null)
+            unlink(e);
+        else {
+            if (entries.size() >= capacity) {
+                remove(tail);
+                evictions++;
+            }
+
+            e = new Entry<K, V>(key);
+            entries.add(key, e);
+        }
+
+        e.value = value;
+        e.expires = ttlMillis > 0 ? (System.nanoTime() + ttlMillis * 1000000) | 1 : 0;
+        addFirst(e);
+    }
+
+    /**
+     * Drop the cached value of the key, for example after the key
+     * was changed in the dictionary
+     *
+     * @param key the key to drop
+     */
+    public synchronized void invalidate(K key) {
+        Entry<K, V> e = entries.getValue(key);
+
+        if (e != null)
+            remove(e);
+    }
+
+    /**
+     * Drop every cached value, the counters are kept
+     */
+    public synchronized void makeEmpty() {
+        entries.makeEmpty();
+        head = tail = null;
+    }
+
+    /**
+     * Returns the number of entries in the cache
+     *
+     * @return the number of cached entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of entries in the cache
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that went to the dictionary
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of entries dropped because their time to live was over
+     *
+     * @return the number of expirations
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Returns the share of lookups answered from the cache
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public synchronized double hitRate() {
+        if (hits + misses == 0)
+            return 0;
+
+        return (double) hits / (hits + misses);
+    }
+
+    private void remove(Entry<K, V> e) {
+        unlink(e);
+        entries.remove(e.key);
+    }
+
+    private void addFirst(Entry<K, V> e) {
+        e.previous = null;
+        e.next = head;
+
+        if (head == null)
+            tail = e;
+        else
+            head.previous = e;
+
+        head = e;
+    }
+
+    private void unlink(Entry<K, V> e) {
+        if (e.previous == null)
+            head = e.next;
+        else
+            e.previous.next = e.next;
+
+        if (e.next == null)
+            tail = e.previous;
+        else
+            e.next.previous = e.previous;
+
+        e.previous = e.next = null;
+    }
+
+    static class Entry<K, V> {
+        K key;
+        V value;
+        long expires;
+        Entry<K, V> previous, next;
+
+        public Entry(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import interfaces.HashI;
+
+/**
+ * The ConcurrentHash is a thread safe version of the Hash data structure. Like the Hash it
+ * consists of an array of chained buckets, but the buckets are guarded by a fixed number of
+ * locks (lock striping): bucket i is guarded by lock i % STRIPES, so writers that touch
+ * different stripes never wait for each other.
+ * <p>
+ * Reads take no lock at all. The nodes of a bucket chain never change their key or next
+ * pointer, a remove copies the nodes in front of the removed one instead of unlinking it,
+ * so a reader always sees a complete chain. A resize takes every lock, which only blocks
+ * writers, and builds a new table next to the old one. Readers keep using the old table
+ * until the new one is published.
+ *
+ * @param <K> The key for entries in the hash
+ * @param <V> The value for entries in the hash
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+
+public class ConcurrentHash<K, V> implements HashI<K, V> {
+
+    // Number of locks, the table size is always a multiple of it
+    private static final int STRIPES = 64;
+
+    private volatile AtomicReferenceArray<Node<K, V>> hash_array;
+    private final ReentrantLock[] locks;
+    private final AtomicIntegerArray counts;
+    private volatile double maxLoadFactor;
+
+    /**
+     * The ConcurrentHash constructor with the same default size as Hash
+     */
+    public ConcurrentHash() {
+        this(50000);
+    }
+
+    /**
+     * The ConcurrentHash constructor accepts a single parameter, an int, that
+     * sets the initial size of the Dictionary. The size is rounded up to
+     * a power of two.
+     *
+     * @param size the initial size of the dictionary
+     */
+    public ConcurrentHash(int size) {
+        locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+            locks[i] = new ReentrantLock();
+
+        counts = new AtomicIntegerArray(STRIPES);
+        maxLoadFactor = 0.75;
+        hash_array = new AtomicReferenceArray<Node<K, V>>(tableSizeFor(size));
+    }
+
+    /**
+     * Adds the given key/value pair to the dictionary.  Returns
+     * false if the dictionary is full, or if the key is a duplicate.
+     * Returns true if addition succeeded.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @return true if the key/value are added to the hash.
+     */
+    public boolean add(K key, V value) {
+        int hash = hash(key);
+        int stripe = hash & (STRIPES - 1);
+        AtomicReferenceArray<Node<K, V>> table;
+        boolean overloaded;
+
+        locks[stripe].lock();
+        try {
+            // Read the table under the lock, a resize can not publish a new one now
+            table = hash_array;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+
+            if (find(head, key, hash) != null)
+                return false;
+
+            table.set(index, new Node<K, V>(hash, key, value, head));
+            overloaded = counts.incrementAndGet(stripe) > maxLoadFactor * (table.length() / STRIPES);
+        } finally {
+            locks[stripe].unlock();
+        }
+
+        if (overloaded)
+            grow(table);
+
+        return true;
+    }
+
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * The dictionary is sized once for the final number of entries, so
+     * no resize happens while the pairs are added. Duplicate keys are skipped.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     */
+    public int addAll(K[] keys, V[] values, int count) {
+        lockAll();
+        try {
+            ensureCapacity(size() + count);
+
+            AtomicReferenceArray<Node<K, V>> table = hash_array;
+            int added = 0;
+
+            for (int i = 0; i < count; i++) {
+                int hash = hash(keys[i]);
+                int index = hash & (table.length() - 1);
+                Node<K, V> head = table.get(index);
+
+                if (find(head, keys[i], hash) == null) {
+                    table.set(index, new Node<K, V>(hash, keys[i], values[i], head));
+                    counts.incrementAndGet(hash & (STRIPES - 1));
+                    added++;
+                }
+            }
+
+            return added;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     */
+    public void ensureCapacity(int expected) {
+        if (expected > maxLoadFactor * hash_array.length())
+            resize((int) (expected / maxLoadFactor) + 1);
+    }
+
+    /**
+     * Deletes the key/value pair identified by the key parameter.
+     * Returns true if the key/value pair was found and removed,
+     * otherwise returns false.
+     *
+     * @param key the key to remove
+     * @return true if key was removed
+     */
+    public boolean remove(K key) {
+        int hash = hash(key);
+        int stripe = hash & (STRIPES - 1);
+
+        locks[stripe].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hash_array;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            Node<K, V> node = find(head, key, hash);
+
+            if (node == null)
+                return false;
+
+            // Copy the nodes in front of the removed one, readers still walking the old chain are not affected
+            Node<K, V> newHead = node.next;
+            for (Node<K, V> p = head; p != node; p = p.next)
+                newHead = new Node<K, V>(p.hash, p.key, p.value, newHead);
+
+            table.set(index, newHead);
+            counts.decrementAndGet(stripe);
+            return true;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Change the value associated with an existing key.
+     *
+     * @param key   The key to change
+     * @param value the new value
+     * @return true if value changed
+     */
+    public boolean changeValue(K key, V value) {
+        int hash = hash(key);
+        int stripe = hash & (STRIPES - 1);
+
+        locks[stripe].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hash_array;
+            Node<K, V> node = find(table.get(hash & (table.length() - 1)), key, hash);
+
+            if (node == null)
+                return false;
+
+            node.value = value;
+            return true;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Test whether the hash has the entry associated with the key
+     *
+     * @param key the key to look for
+     * @return whether it is there.
+     */
+    public boolean contains(K key) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> table = hash_array;
+
+        return find(table.get(hash & (table.length() - 1)), key, hash) != null;
+    }
+
+    /**
+     * Returns the value associated with the parameter key.
+     * Returns null if the key is not found or the dictionary is empty.
+     *
+     * @param key the key to find the value for
+     * @return the value
+     */
+    public V getValue(K key) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> table = hash_array;
+        Node<K, V> node = find(table.get(hash & (table.length() - 1)), key, hash);
+
+        if (node == null)
+            return null;
+
+        return node.value;
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored in the dictionary.
+     * While other threads are writing this is only an estimate.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++)
+            size += counts.get(i);
+        return size;
+    }
+
+    /**
+     * Returns true if the dictionary is empty
+     *
+     * @return whether the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Make the dictionary empty
+     */
+    public void makeEmpty() {
+        lockAll();
+        try {
+            hash_array = new AtomicReferenceArray<Node<K, V>>(hash_array.length());
+            for (int i = 0; i < STRIPES; i++)
+                counts.set(i, 0);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Returns the current load factor of the dictionary (lambda)
+     *
+     * @return the loadFactor
+     */
+    public double loadFactor() {
+        return (double) size() / hash_array.length();
+    }
+
+    /**
+     * Get the maximum load factor (at which point we need to resize)
+     *
+     * @return the maximum load factor of the hash
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Set the maximum load factor (at which point we need to resize)
+     *
+     * @param loadfactor the maximum load factor
+     */
+    public void setMaxLoadFActor(double loadfactor) {
+        maxLoadFactor = loadfactor;
+    }
+
+    /**
+     * Resizes the dictionary. The new size is rounded up to a power of two.
+     * Writers wait for the resize to finish, readers do not.
+     *
+     * @param newSize the size of the new dictionary
+     */
+    public void resize(int newSize) {
+        lockAll();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hash_array;
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<Node<K, V>>(tableSizeFor(newSize));
+            int mask = newTable.length() - 1;
+
+            // The old nodes are still being read, so every node is copied into the new table
+            for (int i = 0; i < table.length(); i++)
+                for (Node<K, V> p = table.get(i); p != null; p = p.next) {
+                    int index = p.hash & mask;
+                    newTable.set(index, new Node<K, V>(p.hash, p.key, p.value, newTable.get(index)));
+                }
+
+            hash_array = newTable;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Lookups take no lock and never change the table, so there is nothing to prepare
+     */
+    public void prepareForReaders() {
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary. The iterator walks
+     * the table in place and does not fail if other threads change it; it may
+     * or may not see changes made after it was created.
+     */
+    public Iterator<K> iterator() {
+        return new IteratorHelper();
+    }
+
+    /**
+     * Double the table, unless another thread already replaced it
+     *
+     * @param table the table that was overloaded
+     */
+    private void grow(AtomicReferenceArray<Node<K, V>> table) {
+        lockAll();
+        try {
+            if (hash_array == table)
+                resize(table.length() * 2);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Private method to find the node of a key in a bucket chain
+     *
+     * @param node the head of the chain
+     * @param key  the key to look for
+     * @param hash the spread hash code of the key
+     * @return the node or null if the key is not in the chain
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> find(Node<K, V> node, K key, int hash) {
+        for (; node != null; node = node.next)
+            if (node.hash == hash && (node.key == key || ((Comparable<K>) node.key).compareTo(key) == 0))
+                return node;
+
+        return null;
+    }
+
+    // The locks are always taken in the same order, so two threads can not deadlock
+    private void lockAll() {
+        for (int i = 0; i < STRIPES; i++)
+            locks[i].lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--)
+            locks[i].unlock();
+    }
+
+    /**
+     * Spread the key's hash code so that the low bits used for the bucket
+     * and the stripe depend on all of its bits.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * The smallest power of two that is at least size and at least STRIPES
+     */
+    private static int tableSizeFor(int size) {
+        int n = STRIPES;
+        while (n < size && n < (1 << 30))
+            n <<= 1;
+        return n;
+    }
+
+    static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        public Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    class IteratorHelper implements Iterator<K> {
+        AtomicReferenceArray<Node<K, V>> table;
+        Node<K, V> node;
+        int bucket;
+
+        public IteratorHelper() {
+            table = hash_array;
+            bucket = -1;
+            advance();
+        }
+
+        public boolean hasNext() {
+            return node != null;
+        }
+
+        public K next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            K key = node.key;
+            node = node.next;
+            advance();
+
+            return key;
+        }
+
+        private void advance() {
+            while (node == null && ++bucket < table.length())
+                node = table.get(bucket);
+        }
+    }
+}
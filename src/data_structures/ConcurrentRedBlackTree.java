@@ -0,0 +1,635 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import interfaces.RedBlackI;
+
+/**
+ * The ConcurrentRedBlackTree is a thread safe, persistent version of the RedBlackTree. Its
+ * nodes never change once they are built. An add or remove copies the nodes on the path
+ * from the root to the changed node, rebalances the copies, and then publishes the new root
+ * with a single volatile write. The old nodes are shared by both versions of the tree.
+ * <p>
+ * Readers take no lock. Every read uses the root it sees when it starts, so a lookup or an
+ * iterator always works on one consistent version of the tree, however many updates happen
+ * in the meantime. Writers are synchronized and change the tree one at a time.
+ * <p>
+ * Insertion rebalances like Okasaki's functional red black trees, and deletion uses the
+ * balLeft, balRight and append steps of Kahrs' functional deletion.
+ *
+ * @param <K> The key for entries in the tree
+ * @param <V> The value for entries in the tree
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ConcurrentRedBlackTree<K, V> implements RedBlackI<K, V> {
+
+    private volatile Node<K, V> root;
+
+    /**
+     * ConcurrentRedBlackTree constructor
+     */
+    public ConcurrentRedBlackTree() {
+        root = null;
+    }
+
+    private ConcurrentRedBlackTree(Node<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a copy of the tree as it is now, in constant time. The copy
+     * shares its nodes with this tree, and later changes to either tree
+     * do not show in the other.
+     *
+     * @return the copy of the tree
+     */
+    public ConcurrentRedBlackTree<K, V> snapshot() {
+        return new ConcurrentRedBlackTree<K, V>(root);
+    }
+
+    /**
+     * The method to add to the RBTree.  It will not allow duplicate additions.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     */
+    public synchronized void add(K key, V value) {
+        Node<K, V> node = insert(root, key, value);
+
+        if (node != root)
+            root = blacken(node);
+    }
+
+    /**
+     * Removes the key and its value from the RBTree.
+     *
+     * @param key the key to remove
+     * @return true if the key was found and removed
+     */
+    public synchronized boolean remove(K key) {
+        if (findNode(root, key) == null)
+            return false;
+
+        root = blacken(delete(root, key));
+        return true;
+    }
+
+    /**
+     * Tests whether the RBTree contains the key
+     *
+     * @param key the key to look for
+     * @return whether the key is found
+     */
+    public boolean contains(K key) {
+        return findNode(root, key) != null;
+    }
+
+    /**
+     * Get the value associated with a given key
+     *
+     * @param key the key to get the value for
+     * @return the current value
+     */
+    public V getValue(K key) {
+        Node<K, V> node = findNode(root, key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the number of elements in the RBTree
+     *
+     * @return the number of elements in the tree
+     */
+    public int size() {
+        return count(root);
+    }
+
+    /**
+     * Test whether the RBTree is empty
+     *
+     * @return true if the tree is empty
+     * false if the tree is not empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * The height of the tree. Recall that a tree with
+     * only a root node has height 0
+     *
+     * @return the height of the tree at the root node
+     */
+    public int height() {
+        Node<K, V> node = root;
+        if (node == null)
+            return 0;
+
+        return height(node) - 1;
+    }
+
+    private int height(Node<K, V> node) {
+        if (node == null)
+            return 0;
+
+        return Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    /**
+     * Returns the smallest key in the RBTree
+     *
+     * @return the first key, or null if the tree is empty
+     */
+    public K first() {
+        Node<K, V> node = root;
+        if (node == null)
+            return null;
+
+        while (node.left != null)
+            node = node.left;
+        return node.key;
+    }
+
+    /**
+     * Returns the largest key in the RBTree
+     *
+     * @return the last key, or null if the tree is empty
+     */
+    public K last() {
+        Node<K, V> node = root;
+        if (node == null)
+            return null;
+
+        while (node.right != null)
+            node = node.right;
+        return node.key;
+    }
+
+    /**
+     * Returns the largest key less than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the floor key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public K floor(K key) {
+        Node<K, V> node = root, floor = null;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node.key;
+
+            if (cmp > 0) {
+                floor = node;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+
+        return floor == null ? null : floor.key;
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the ceiling key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public K ceiling(K key) {
+        Node<K, V> node = root, ceiling = null;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node.key;
+
+            if (cmp < 0) {
+                ceiling = node;
+                node = node.left;
+            } else
+                node = node.right;
+        }
+
+        return ceiling == null ? null : ceiling.key;
+    }
+
+    /**
+     * An iterator for the keys from from, inclusive, to to, exclusive,
+     * in order, in the version of the tree at the time of the call.
+     *
+     * @param from the lowest key
+     * @param to   the key to stop before
+     * @return an iterator over the keys in the range
+     */
+    public Iterator<K> subMap(K from, K to) {
+        return new IteratorHelper(root, from, to);
+    }
+
+    /**
+     * Returns the number of keys in the RBTree that are less than the key
+     *
+     * @param key the key to rank, which does not have to be in the tree
+     * @return the number of smaller keys
+     */
+    public int rank(K key) {
+        return rank(root, key, false);
+    }
+
+    /**
+     * Returns the key with the given rank, the smallest key has rank 0
+     *
+     * @param index the rank of the key
+     * @return the key
+     * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+     */
+    public K select(int index) {
+        Node<K, V> node = root;
+
+        if (index < 0 || index >= count(node))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count(node));
+
+        while (true) {
+            int left = count(node.left);
+            if (index == left)
+                return node.key;
+
+            if (index < left)
+                node = node.left;
+            else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys from lo to hi, both inclusive
+     *
+     * @param lo the lowest key
+     * @param hi the highest key
+     * @return the number of keys in the range
+     */
+    public int countBetween(K lo, K hi) {
+        Node<K, V> node = root;
+        return Math.max(rank(node, hi, true) - rank(node, lo, false), 0);
+    }
+
+    /**
+     * An iterator for all the keys in the RBTree. This will
+     * iterate over the keys using In-Order Traversal, in the version
+     * of the tree at the time of the call.
+     *
+     * @see java.lang.Iterable#iterator()
+     */
+    public Iterator<K> iterator() {
+        return new IteratorHelper(root, null, null);
+    }
+
+    /**
+     * Recursively print the tree. This method should print the
+     * entire tree using In-order Traversal to the standard
+     * output (i.e. using System.out.println or System.out.print).
+     * You can print the tree one node per line, and use periods to
+     * note the hierarchy of the tree.
+     */
+    public void print() {
+        Node<K, V> node = root;
+        print(node, node, 0);
+    }
+
+    private void print(Node<K, V> node, Node<K, V> top, int width) {
+        if (node == null)
+            return;
+
+        print(node.left, top, width + 1);
+
+        for (int i = 0; i < width; i++)
+            System.out.print(".");
+
+        String color;
+        if (node.black)
+            color = "black";
+        else
+            color = "red";
+
+        if (node == top)
+            System.out.println(node.key + " : " + color + " (root)");
+        else
+            System.out.println(node.key + " : " + color);
+
+        print(node.right, top, width + 1);
+    }
+
+    /**
+     * Check the number of black nodes on each side and check if
+     * they are the same. A red node with a red child is also reported.
+     *
+     * @return number of black nodes on every path
+     * @throws IllegalStateException if the tree is not a valid red black tree
+     */
+    public int blackNodes() {
+        return blackNodes(root);
+    }
+
+    private int blackNodes(Node<K, V> node) {
+        if (node == null)
+            return 1;
+        int rightBlackNodes = blackNodes(node.right);
+        int leftBlackNodes = blackNodes(node.left);
+        if (rightBlackNodes != leftBlackNodes)
+            throw new IllegalStateException("The paths below " + node.key + " have different numbers of black nodes");
+        if (!node.black && (isRed(node.left) || isRed(node.right)))
+            throw new IllegalStateException("The red node " + node.key + " has a red child");
+
+        return node.black ? leftBlackNodes + 1 : leftBlackNodes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V> findNode(Node<K, V> node, K key) {
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int rank(Node<K, V> node, K key, boolean inclusive) {
+        int rank = 0;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+
+            if (cmp == 0)
+                return rank + count(node.left) + (inclusive ? 1 : 0);
+
+            if (cmp < 0)
+                node = node.left;
+            else {
+                rank += count(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Add the key below the node. A red node with a red child is left
+     * for the black node above it to balance.
+     *
+     * @return the new node, or the same node if the key is already there
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null)
+            return new Node<K, V>(key, value, null, null, false);
+
+        int cmp = ((Comparable<K>) key).compareTo(node.key);
+        if (cmp == 0)
+            return node;
+
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value);
+            if (left == node.left)
+                return node;
+
+            return node.black ? balance(node.key, node.value, left, node.right)
+                    : new Node<K, V>(node.key, node.value, left, node.right, false);
+        }
+
+        Node<K, V> right = insert(node.right, key, value);
+        if (right == node.right)
+            return node;
+
+        return node.black ? balance(node.key, node.value, node.left, right)
+                : new Node<K, V>(node.key, node.value, node.left, right, false);
+    }
+
+    /**
+     * Remove the key, which is in the tree, below the node. Removing from
+     * a black subtree makes it one black node short, which balLeft and
+     * balRight make up for.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        int cmp = ((Comparable<K>) key).compareTo(node.key);
+
+        if (cmp < 0) {
+            Node<K, V> left = delete(node.left, key);
+            if (isBlack(node.left))
+                return balLeft(node.key, node.value, left, node.right);
+            return new Node<K, V>(node.key, node.value, left, node.right, false);
+        }
+
+        if (cmp > 0) {
+            Node<K, V> right = delete(node.right, key);
+            if (isBlack(node.right))
+                return balRight(node.key, node.value, node.left, right);
+            return new Node<K, V>(node.key, node.value, node.left, right, false);
+        }
+
+        return append(node.left, node.right);
+    }
+
+    /**
+     * Build a black node and fix a red node with a red child below it
+     */
+    private Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (isRed(left)) {
+            if (isRed(right))
+                return red(key, value, paint(left, true), paint(right, true));
+            if (isRed(left.left))
+                return red(left.key, left.value, paint(left.left, true), black(key, value, left.right, right));
+            if (isRed(left.right))
+                return red(left.right.key, left.right.value, black(left.key, left.value, left.left, left.right.left),
+                        black(key, value, left.right.right, right));
+        } else if (isRed(right)) {
+            if (isRed(right.right))
+                return red(right.key, right.value, black(key, value, left, right.left), paint(right.right, true));
+            if (isRed(right.left))
+                return red(right.left.key, right.left.value, black(key, value, left, right.left.left),
+                        black(right.key, right.value, right.left.right, right.right));
+        }
+
+        return black(key, value, left, right);
+    }
+
+    /**
+     * Build a node whose left subtree is one black node short
+     */
+    private Node<K, V> balLeft(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (isRed(left))
+            return red(key, value, paint(left, true), right);
+        if (isBlack(right))
+            return balance(key, value, left, paint(right, false));
+        if (isRed(right) && isBlack(right.left))
+            return red(right.left.key, right.left.value, black(key, value, left, right.left.left),
+                    balance(right.key, right.value, right.left.right, subl(right.right)));
+
+        throw new IllegalStateException("The tree is not balanced at " + key);
+    }
+
+    /**
+     * Build a node whose right subtree is one black node short
+     */
+    private Node<K, V> balRight(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (isRed(right))
+            return red(key, value, left, paint(right, true));
+        if (isBlack(left))
+            return balance(key, value, paint(left, false), right);
+        if (isRed(left) && isBlack(left.right))
+            return red(left.right.key, left.right.value, balance(left.key, left.value, subl(left.left), left.right.left),
+                    black(key, value, left.right.right, right));
+
+        throw new IllegalStateException("The tree is not balanced at " + key);
+    }
+
+    /**
+     * Join two subtrees of the same black height, all the keys of the left
+     * one are smaller than those of the right one
+     */
+    private Node<K, V> append(Node<K, V> left, Node<K, V> right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        if (isRed(left) && isRed(right)) {
+            Node<K, V> middle = append(left.right, right.left);
+            if (isRed(middle))
+                return red(middle.key, middle.value, red(left.key, left.value, left.left, middle.left),
+                        red(right.key, right.value, middle.right, right.right));
+            return red(left.key, left.value, left.left, red(right.key, right.value, middle, right.right));
+        }
+
+        if (isBlack(left) && isBlack(right)) {
+            Node<K, V> middle = append(left.right, right.left);
+            if (isRed(middle))
+                return red(middle.key, middle.value, black(left.key, left.value, left.left, middle.left),
+                        black(right.key, right.value, middle.right, right.right));
+            return balLeft(left.key, left.value, left.left, black(right.key, right.value, middle, right.right));
+        }
+
+        if (isRed(right))
+            return red(right.key, right.value, append(left, right.left), right.right);
+
+        return red(left.key, left.value, left.left, append(left.right, right));
+    }
+
+    private Node<K, V> subl(Node<K, V> node) {
+        if (!isBlack(node))
+            throw new IllegalStateException("The tree is not balanced");
+
+        return paint(node, false);
+    }
+
+    private Node<K, V> blacken(Node<K, V> node) {
+        return isRed(node) ? paint(node, true) : node;
+    }
+
+    private Node<K, V> paint(Node<K, V> node, boolean black) {
+        if (node.black == black)
+            return node;
+
+        return new Node<K, V>(node.key, node.value, node.left, node.right, black);
+    }
+
+    private Node<K, V> red(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<K, V>(key, value, left, right, false);
+    }
+
+    private Node<K, V> black(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<K, V>(key, value, left, right, true);
+    }
+
+    // Here a missing node is neither red nor black
+    private boolean isRed(Node<K, V> node) {
+        return node != null && !node.black;
+    }
+
+    private boolean isBlack(Node<K, V> node) {
+        return node != null && node.black;
+    }
+
+    private int count(Node<K, V> node) {
+        return node == null ? 0 : node.count;
+    }
+
+    static class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left, right;
+        final boolean black;
+        final int count;
+
+        public Node(K key, V value, Node<K, V> left, Node<K, V> right, boolean black) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.black = black;
+            count = (left == null ? 0 : left.count) + (right == null ? 0 : right.count) + 1;
+        }
+    }
+
+    /**
+     * An in order walk of one version of the tree. The stack holds the
+     * nodes on the path whose keys are still to come.
+     */
+    class IteratorHelper implements Iterator<K> {
+
+        Stack<Node<K, V>> path;
+        K to;
+
+        /**
+         * @param node the root of the version to walk
+         * @param from the first key, or null to start at the smallest key
+         * @param to   the key to stop before, or null to run to the end
+         */
+        @SuppressWarnings("unchecked")
+        public IteratorHelper(Node<K, V> node, K from, K to) {
+            this.to = to;
+            path = new Stack<Node<K, V>>();
+
+            while (node != null) {
+                if (from == null || ((Comparable<K>) from).compareTo(node.key) <= 0) {
+                    path.push(node);
+                    node = node.left;
+                } else
+                    node = node.right;
+            }
+
+            checkEnd();
+        }
+
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        public K next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Node<K, V> node = path.pop();
+            for (Node<K, V> n = node.right; n != null; n = n.left)
+                path.push(n);
+
+            checkEnd();
+            return node.key;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void checkEnd() {
+            if (to != null && !path.isEmpty() && ((Comparable<K>) path.peek().key).compareTo(to) >= 0)
+                path.makeEmpty();
+        }
+    }
+}
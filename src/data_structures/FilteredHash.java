@@ -0,0 +1,296 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+import interfaces.HashI;
+
+/**
+ * The FilteredHash puts a BloomFilter of the keys in front of another HashI. Lookups of keys
+ * that are not in the dictionary are usually answered by the filter alone, without hashing
+ * into the table and walking a bucket. The filter is built from the keys of the table and is
+ * updated on every add.
+ * <p>
+ * A Bloom filter can not forget keys, so removed keys still pass the filter and are answered
+ * by the table. When the filter is full, it is rebuilt from the keys that are in the table
+ * at that point with room for twice as many keys.
+ * <p>
+ * Lookups only read the filter, and the count of rejected lookups is a LongAdder, so lookups
+ * may run on several threads at once if the table allows that.
+ *
+ * @param <K> The key for entries in the hash
+ * @param <V> The value for entries in the hash
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class FilteredHash<K, V> implements HashI<K, V> {
+
+    private HashI<K, V> table;
+    private BloomFilter<K> filter;
+    private double falsePositiveRate;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * FilteredHash constructor with a false positive rate of 1%
+     *
+     * @param table the dictionary to filter
+     */
+    public FilteredHash(HashI<K, V> table) {
+        this(table, 0.01);
+    }
+
+    /**
+     * FilteredHash constructor
+     *
+     * @param table             the dictionary to filter
+     * @param falsePositiveRate the share of missing keys that still reach the table
+     */
+    public FilteredHash(HashI<K, V> table, double falsePositiveRate) {
+        this.table = table;
+        this.falsePositiveRate = falsePositiveRate;
+        rebuild(table.size());
+    }
+
+    /**
+     * Build a new filter from the keys in the table
+     *
+     * @param expected the number of keys the new filter is sized for
+     */
+    public void rebuild(int expected) {
+        filter = new BloomFilter<K>(Math.max(expected, 1024), falsePositiveRate);
+
+        for (K key : table)
+            filter.add(key);
+    }
+
+    /**
+     * Returns the false positive rate the filter is sized for
+     *
+     * @return the wanted false positive rate
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Returns the false positive rate of the filter for the keys in it now
+     *
+     * @return the current false positive rate
+     */
+    public double currentFalsePositiveRate() {
+        return filter.currentFalsePositiveRate();
+    }
+
+    /**
+     * Returns the memory used by the filter
+     *
+     * @return the size of the filter in bytes
+     */
+    public long filterBytes() {
+        return filter.sizeInBytes();
+    }
+
+    /**
+     * Returns the number of lookups answered by the filter alone
+     *
+     * @return the number of rejected lookups
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Adds the given key/value pair to the dictionary.  Returns
+     * false if the dictionary is full, or if the key is a duplicate.
+     * Returns true if addition succeeded.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @return true if the key/value are added to the hash.
+     */
+    public boolean add(K key, V value) {
+        if (!table.add(key, value))
+            return false;
+
+        if (filter.size() >= filter.getExpected())
+            rebuild(2 * table.size());
+        else
+            filter.add(key);
+
+        return true;
+    }
+
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * The filter is sized for the new keys before they are added.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     */
+    public int addAll(K[] keys, V[] values, int count) {
+        int added = table.addAll(keys, values, count);
+
+        if (filter.size() + count > filter.getExpected())
+            rebuild(2 * table.size());
+        else
+            for (int i = 0; i < count; i++)
+                filter.add(keys[i]);
+
+        return added;
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     */
+    public void ensureCapacity(int expected) {
+        table.ensureCapacity(expected);
+
+        if (expected > filter.getExpected())
+            rebuild(expected);
+    }
+
+    /**
+     * Deletes the key/value pair identified by the key parameter.
+     * Returns true if the key/value pair was found and removed,
+     * otherwise returns false.
+     *
+     * @param key the key to remove
+     * @return true if key was removed
+     */
+    public boolean remove(K key) {
+        if (!mightContain(key))
+            return false;
+
+        return table.remove(key);
+    }
+
+    /**
+     * Change the value associated with an existing key.
+     *
+     * @param key   The key to change
+     * @param value the new value
+     * @return true if value changed
+     */
+    public boolean changeValue(K key, V value) {
+        if (!mightContain(key))
+            return false;
+
+        return table.changeValue(key, value);
+    }
+
+    /**
+     * Test whether the hash has the entry associated with the key
+     *
+     * @param key the key to look for
+     * @return whether it is there.
+     */
+    public boolean contains(K key) {
+        if (!mightContain(key))
+            return false;
+
+        return table.contains(key);
+    }
+
+    /**
+     * Returns the value associated with the parameter key.
+     * Returns null if the key is not found or the dictionary is empty.
+     *
+     * @param key the key to find the value for
+     * @return the value
+     */
+    public V getValue(K key) {
+        if (!mightContain(key))
+            return null;
+
+        return table.getValue(key);
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored in the dictionary
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns true if the dictionary is empty
+     *
+     * @return whether the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    /**
+     * Make the dictionary empty
+     */
+    public void makeEmpty() {
+        table.makeEmpty();
+        filter.makeEmpty();
+    }
+
+    /**
+     * Returns the current load factor of the dictionary (lambda)
+     *
+     * @return the loadFactor
+     */
+    public double loadFactor() {
+        return table.loadFactor();
+    }
+
+    /**
+     * Get the maximum load factor (at which point we need to resize)
+     *
+     * @return the maximum load factor of the hash
+     */
+    public double getMaxLoadFactor() {
+        return table.getMaxLoadFactor();
+    }
+
+    /**
+     * Set the maximum load factor (at which point we need to resize)
+     *
+     * @param loadfactor the maximum load factor
+     */
+    public void setMaxLoadFActor(double loadfactor) {
+        table.setMaxLoadFActor(loadfactor);
+    }
+
+    /**
+     * Resizes the dictionary
+     *
+     * @param newSize the size of the new dictionary
+     */
+    public void resize(int newSize) {
+        table.resize(newSize);
+    }
+
+    /**
+     * Prepares the table, the filter is only read by lookups
+     */
+    public void prepareForReaders() {
+        table.prepareForReaders();
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary
+     */
+    public Iterator<K> iterator() {
+        return table.iterator();
+    }
+
+    private boolean mightContain(K key) {
+        if (filter.mightContain(key))
+            return true;
+
+        rejected.increment();
+        return false;
+    }
+}
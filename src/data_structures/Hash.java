@@ -1,15 +1,25 @@
 package data_structures;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import interfaces.HashI;
-import interfaces.HashListI;
 
 /**
  * The Hash data structure has O(1) time complexity (best case) for add, remove, and find
  * for an object in the data structure. The methods in the Hash data structure are defined
  * by the HashI interface. The Hash consists of an array of Linked Lists,
  * the Linked Lists are defined by the HashListI interface.
+ * <p>
+ * In incremental mode a resize does not rehash the whole table at once. The old
+ * table is kept next to the new one and every operation, lookups included, moves a
+ * few of its buckets over. Lookups check both tables until the old one is drained.
+ * Because lookups move buckets, an incremental Hash that is resizing must not be
+ * read by several threads at once, prepareForReaders drains the old table first.
+ * The iterators drain it as well, so a loop over the keys may look up their values.
+ * The buckets are only created when the first element is put in them, so a resize
+ * does not have to allocate a list for every bucket.
  *
  * @param <K> The key for entries in the hash
  * @param <V> The value for entries in the hash
@@ -19,22 +29,42 @@ import interfaces.HashListI;
 
 public class Hash<K, V> implements HashI<K, V> {
 
-    private LinkedList<HashElement<K, V>>[] hash_array;
-    private int tableSize, numElements;
+    // Number of old buckets moved to the new table on every add or remove
+    private static final int REHASH_STEP = 4;
+
+    private HashList<HashElement<K, V>>[] hash_array, old_array;
+    private int tableSize, oldTableSize, numElements, rehashIndex;
     private double maxLoadFactor;
+    private boolean incremental;
+
+    /**
+     * The Hash constructor with the default size of 50000
+     */
+    public Hash() {
+        this(50000);
+    }
 
     /**
      * The Hash constructor accepts a single parameter, an int, that
      * sets the initial size of the Dictionary.
+     *
+     * @param size the initial size of the dictionary
      */
-    @SuppressWarnings("unchecked")
-    public Hash() {
-        tableSize = 50000;
-        hash_array = (LinkedList<HashElement<K, V>>[]) new LinkedList[tableSize];
+    public Hash(int size) {
+        this(size, false);
+    }
 
-        for (int i = 0; i < tableSize; i++)
-            hash_array[i] = new LinkedList<HashElement<K, V>>();
+    /**
+     * The Hash constructor that also selects the resize mode.
+     *
+     * @param size        the initial size of the dictionary
+     * @param incremental true to spread every resize over the following adds and removes
+     */
+    public Hash(int size, boolean incremental) {
+        tableSize = size;
+        hash_array = newTable(tableSize);
 
+        this.incremental = incremental;
         maxLoadFactor = 0.75;
         numElements = 0;
     }
@@ -49,19 +79,66 @@ public class Hash<K, V> implements HashI<K, V> {
      * @return true if the key/value are added to the hash.
      */
     public boolean add(K key, V value) {
+        rehashStep();
+
         if (loadFactor() > maxLoadFactor)
             resize(tableSize * 2);
 
         HashElement<K, V> he = new HashElement<K, V>(key, value);
 
-        int hashval = (key.hashCode() & 0x7FFFFFFF) % tableSize;
+        int hashval = (he.hash & 0x7FFFFFFF) % tableSize;
 
-        hash_array[hashval].add(he);
+        bucket(hashval).add(he);
         numElements++;
 
         return true;
     }
 
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * The dictionary is sized once for the final number of entries, so
+     * no resize happens while the pairs are added. Keys that are already
+     * in the dictionary, or earlier in the arrays, are skipped.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     */
+    public int addAll(K[] keys, V[] values, int count) {
+        ensureCapacity(numElements + count);
+        finishRehash();
+
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            HashElement<K, V> he = new HashElement<K, V>(keys[i], values[i]);
+            int index = (he.hash & 0x7FFFFFFF) % tableSize;
+
+            if (find(hash_array[index], he.key, he.hash) == null) {
+                bucket(index).add(he);
+                added++;
+            }
+        }
+
+        numElements += added;
+        return added;
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     */
+    public void ensureCapacity(int expected) {
+        int needed = (int) Math.ceil(expected / maxLoadFactor);
+
+        if (needed > tableSize) {
+            resize(needed);
+            finishRehash();
+        }
+    }
+
     /**
      * Deletes the key/value pair identified by the key parameter.
      * Returns true if the key/value pair was found and removed,
@@ -70,29 +147,34 @@ public class Hash<K, V> implements HashI<K, V> {
      * @param key the key to remove
      * @return true if key was removed
      */
-    @SuppressWarnings("unchecked")
     public boolean remove(K key) {
-        int hashval = (key.hashCode() & 0x7FFFFFFF) % tableSize;
+        rehashStep();
 
-        for (HashElement<K, V> he : hash_array[hashval])
-            if (((Comparable<K>) he.key).compareTo(key) == 0) {
-                hash_array[hashval].remove(he);
-                numElements--;
-                return true;
-            }
+        int hash = key.hashCode();
+        HashList<HashElement<K, V>> list = hash_array[(hash & 0x7FFFFFFF) % tableSize];
+        HashElement<K, V> he = find(list, key, hash);
 
-        return false;
+        if (he == null && old_array != null) {
+            list = old_array[(hash & 0x7FFFFFFF) % oldTableSize];
+            he = find(list, key, hash);
+        }
+
+        if (he == null)
+            return false;
+
+        list.remove(he);
+        numElements--;
+        return true;
     }
 
     @SuppressWarnings("unchecked")
     public V getMaxValue() {
         HashElement<K, V> max = null;
 
-        for (int i = 0; i < tableSize; i++) {
-            LinkedList<HashElement<K, V>> list = hash_array[i];
-            for (HashElement<K, V> he : list)
-                if (max == null || ((Comparable<V>) he.value).compareTo(max.value) > 0)
-                    max = he;
+        for (Iterator<HashElement<K, V>> it = entryIterator(); it.hasNext(); ) {
+            HashElement<K, V> he = it.next();
+            if (max == null || ((Comparable<V>) he.value).compareTo(max.value) > 0)
+                max = he;
         }
 
         return max.value;
@@ -105,17 +187,14 @@ public class Hash<K, V> implements HashI<K, V> {
      * @param value
      * @return true if value changed
      */
-    @SuppressWarnings("unchecked")
     public boolean changeValue(K key, V value) {
-        int hashval = (key.hashCode() & 0x7FFFFFFF) % tableSize;
+        HashElement<K, V> he = find(key);
 
-        for (HashElement<K, V> he : hash_array[hashval])
-            if (((Comparable<K>) he.key).compareTo(key) == 0) {
-                he.value = value;
-                return true;
-            }
+        if (he == null)
+            return false;
 
-        return false;
+        he.value = value;
+        return true;
     }
 
     /**
@@ -124,16 +203,8 @@ public class Hash<K, V> implements HashI<K, V> {
      * @param key the key to look for
      * @return whether it is there.
      */
-    @SuppressWarnings("unchecked")
     public boolean contains(K key) {
-        int hashval = (key.hashCode() & 0x7FFFFFFF) % tableSize;
-
-        for (HashElement<K, V> he : hash_array[hashval])
-            if (((Comparable<K>) he.key).compareTo(key) == 0) {
-                return true;
-            }
-
-        return false;
+        return find(key) != null;
     }
 
     /**
@@ -143,15 +214,13 @@ public class Hash<K, V> implements HashI<K, V> {
      * @param key the key to find the value for
      * @return the value
      */
-    @SuppressWarnings("unchecked")
     public V getValue(K key) {
-        int hashval = (key.hashCode() & 0x7FFFFFFF) % tableSize;
+        HashElement<K, V> he = find(key);
 
-        for (HashElement<K, V> he : hash_array[hashval])
-            if (((Comparable<K>) he.key).compareTo(key) == 0)
-                return he.value;
+        if (he == null)
+            return null;
 
-        return null;
+        return he.value;
     }
 
     /**
@@ -179,19 +248,29 @@ public class Hash<K, V> implements HashI<K, V> {
      * Make the dictionary empty
      */
     public void makeEmpty() {
-        for (int i = 0; i < hash_array.length; i++)
-            hash_array[i] = null;
+        Arrays.fill(hash_array, null);
 
+        old_array = null;
         numElements = 0;
     }
 
+    /**
+     * Returns the number of buckets, including the buckets of the old table
+     * while an incremental resize is still moving them
+     *
+     * @return the number of buckets
+     */
+    public int tableSize() {
+        return old_array == null ? tableSize : tableSize + oldTableSize;
+    }
+
     /**
      * Returns the current load factor of the dictionary (lambda)
      *
      * @return the loadFactor
      */
     public double loadFactor() {
-        return numElements / tableSize;
+        return (double) numElements / tableSize;
     }
 
     /**
@@ -213,47 +292,203 @@ public class Hash<K, V> implements HashI<K, V> {
     }
 
     /**
-     * Resizes the dictionary
+     * Resizes the dictionary. In incremental mode the entries are moved
+     * over by the following operations.
      *
      * @param newSize the size of the new dictionary
      */
-    @SuppressWarnings("unchecked")
     public void resize(int newSize) {
-        LinkedList<HashElement<K, V>>[] new_array = (LinkedList<HashElement<K, V>>[]) new LinkedList[newSize];
+        // Only one resize can be in progress at a time
+        finishRehash();
+
+        old_array = hash_array;
+        oldTableSize = tableSize;
+        rehashIndex = 0;
+
+        hash_array = newTable(newSize);
+        tableSize = newSize;
+
+        if (!incremental)
+            finishRehash();
+    }
+
+    /**
+     * Test whether a resize is still moving entries to the new table
+     *
+     * @return true if the old table is not drained yet
+     */
+    public boolean isRehashing() {
+        return old_array != null;
+    }
+
+    /**
+     * Move the next few buckets of the old table to the new one
+     */
+    private void rehashStep() {
+        if (old_array == null)
+            return;
+
+        int end = Math.min(rehashIndex + REHASH_STEP, oldTableSize);
+        while (rehashIndex < end)
+            moveBucket(rehashIndex++);
+
+        if (rehashIndex == oldTableSize)
+            old_array = null;
+    }
 
-        for (int i = 0; i < newSize; i++)
-            new_array[i] = new LinkedList<HashElement<K, V>>();
+    /**
+     * Finish the resize that is in progress, so lookups only read the table
+     */
+    public void prepareForReaders() {
+        finishRehash();
+    }
+
+    /**
+     * Move every remaining bucket of the old table to the new one. Afterwards
+     * lookups do not change the table again until the next resize, so the
+     * dictionary can be read by several threads as long as nothing is added
+     * or removed.
+     */
+    public void finishRehash() {
+        if (old_array == null)
+            return;
+
+        while (rehashIndex < oldTableSize)
+            moveBucket(rehashIndex++);
+
+        old_array = null;
+    }
 
-        for (K key : this) {
-            V val = getValue(key);
+    /**
+     * Move the elements of one old bucket, the elements themselves are reused
+     *
+     * @param index the old bucket to move
+     */
+    private void moveBucket(int index) {
+        if (old_array[index] == null)
+            return;
 
-            HashElement<K, V> he = new HashElement<>(key, val);
-            int hashVal = (key.hashCode() & 0x7FFFFFFF) % newSize;
-            new_array[hashVal].add(he);
+        for (HashElement<K, V> he : old_array[index])
+            bucket((he.hash & 0x7FFFFFFF) % tableSize).add(he);
+
+        old_array[index] = null;
+    }
+
+    /**
+     * Private method to find the element of a key in the new table, and in the
+     * old table while a resize is in progress. Like an add or a remove, every
+     * lookup moves a few old buckets, so the old table is drained even if
+     * nothing is added.
+     *
+     * @param key the key to look for
+     * @return the element or null if the key is not in the hash
+     */
+    private HashElement<K, V> find(K key) {
+        rehashStep();
+
+        int hash = key.hashCode();
+        HashElement<K, V> he = find(hash_array[(hash & 0x7FFFFFFF) % tableSize], key, hash);
+
+        if (he == null && old_array != null)
+            he = find(old_array[(hash & 0x7FFFFFFF) % oldTableSize], key, hash);
+
+        return he;
+    }
+
+    /**
+     * Private method to find the element of a key in a single bucket. The
+     * cached hash codes are compared first, so compareTo is only called for
+     * keys with the same hash code.
+     *
+     * @param list the bucket, null if it was already moved
+     * @param key  the key to look for
+     * @param hash the hash code of the key
+     * @return the element or null if the key is not in the bucket
+     */
+    @SuppressWarnings("unchecked")
+    private HashElement<K, V> find(HashList<HashElement<K, V>> list, K key, int hash) {
+        if (list == null)
+            return null;
+
+        for (HashList.Node<HashElement<K, V>> node = list.head(); node != null; node = node.next) {
+            HashElement<K, V> he = node.data;
+            if (he.hash == hash && (he.key == key || ((Comparable<K>) he.key).compareTo(key) == 0))
+                return he;
         }
 
-        hash_array = new_array;
-        tableSize = newSize;
+        return null;
+    }
 
+    /**
+     * The buckets of a new table are created by the first add to them
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private HashList<HashElement<K, V>>[] newTable(int size) {
+        return (HashList<HashElement<K, V>>[]) new HashList[size];
     }
 
     /**
-     * Returns an Iterator of the keys in the dictionary, in ascending
-     * sorted order
+     * Returns a bucket of the new table, creating it if it is still empty
+     *
+     * @param index the bucket
+     * @return the list of the bucket
+     */
+    private HashList<HashElement<K, V>> bucket(int index) {
+        HashList<HashElement<K, V>> list = hash_array[index];
+
+        if (list == null) {
+            list = new HashList<HashElement<K, V>>();
+            hash_array[index] = list;
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary. The keys are not
+     * copied, so the dictionary must not be changed while iterating, and
+     * the iterator does not support remove. A resize in progress is finished
+     * first, so lookups while iterating do not move the keys.
      */
     public Iterator<K> iterator() {
-        return new IteratorHelper<K>();
+        finishRehash();
+        return new KeyIterator();
     }
 
-    @SuppressWarnings("hiding")
-    class HashElement<K, V> implements Comparable<HashElement<K, V>> {
+    /**
+     * Returns an Iterator of the key/value pairs in the dictionary, so a
+     * scan does not have to look up the value of every key. The dictionary
+     * must not be changed while iterating, a resize in progress is finished
+     * first.
+     *
+     * @return Iterator of the entries
+     */
+    public Iterator<HashElement<K, V>> entryIterator() {
+        finishRehash();
+        return new EntryIterator();
+    }
+
+    /**
+     * A key/value pair of the hash
+     */
+    public static class HashElement<K, V> implements Comparable<HashElement<K, V>> {
 
         K key;
         V value;
+        int hash;
 
         public HashElement(K key, V value) {
             this.key = key;
             this.value = value;
+            hash = key.hashCode();
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
         }
 
         @SuppressWarnings("unchecked")
@@ -262,31 +497,55 @@ public class Hash<K, V> implements HashI<K, V> {
         }
     }
 
-    class IteratorHelper<T> implements Iterator<T> {
-        T[] keys;
-        int position;
+    /**
+     * A cursor over the buckets. The buckets are walked in place, the old
+     * table is already drained when the iterator is created.
+     */
+    abstract class IteratorHelper<T> implements Iterator<T> {
+        HashList<HashElement<K, V>>[] table;
+        HashList.Node<HashElement<K, V>> node;
+        int bucket;
 
-        @SuppressWarnings("unchecked")
         public IteratorHelper() {
-            keys = (T[]) new Object[numElements];
-            int p = 0;
-            for (int i = 0; i < tableSize; i++) {
-                HashListI<HashElement<K, V>> list = (HashListI<Hash<K, V>.HashElement<K, V>>) hash_array[i];
-
-                for (HashElement<K, V> h : list)
-                    keys[p++] = (T) h.key;
-            }
-            position = 0;
+            table = hash_array;
+            bucket = -1;
+            advance();
         }
 
         public boolean hasNext() {
-            return position < keys.length;
+            return node != null;
         }
 
         public T next() {
             if (!hasNext())
-                return null;
-            return keys[position++];
+                throw new NoSuchElementException();
+
+            HashElement<K, V> he = node.data;
+            node = node.next;
+            advance();
+
+            return get(he);
+        }
+
+        abstract T get(HashElement<K, V> he);
+
+        private void advance() {
+            while (node == null && ++bucket < table.length) {
+                if (table[bucket] != null)
+                    node = table[bucket].head();
+            }
+        }
+    }
+
+    class KeyIterator extends IteratorHelper<K> {
+        K get(HashElement<K, V> he) {
+            return he.key;
+        }
+    }
+
+    class EntryIterator extends IteratorHelper<HashElement<K, V>> {
+        HashElement<K, V> get(HashElement<K, V> he) {
+            return he;
         }
     }
-}
\ No newline at end of file
+}
@@ -173,8 +173,16 @@ public class HashList<E> implements HashListI<E> {
         return tmp;
     }
 
-    @SuppressWarnings("hiding")
-    class Node<E> {
+    /**
+     * The first node of the list, for walking the list in place
+     *
+     * @return the head node or null if the list is empty
+     */
+    Node<E> head() {
+        return head;
+    }
+
+    static class Node<E> {
         E data;
         Node<E> next;
 
@@ -0,0 +1,415 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import interfaces.HashI;
+
+/**
+ * The ProbingHash is an open addressing alternative to the Hash data structure. Instead of
+ * an array of Linked Lists, the keys and values are kept in parallel arrays and collisions
+ * are resolved with Robin Hood linear probing. The hash code of every key is cached in a
+ * third array, so a probe only calls compareTo when the cached hash codes match.
+ * <p>
+ * Robin Hood probing keeps every entry close to its home slot: an entry that is further
+ * from its home slot takes the place of one that is closer to its own. Removing an entry
+ * shifts the entries after it back by one slot, so no tombstones are needed.
+ *
+ * @param <K> The key for entries in the hash
+ * @param <V> The value for entries in the hash
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+
+public class ProbingHash<K, V> implements HashI<K, V> {
+
+    // Cached hash code of an empty slot, real hash codes always have the top bit set
+    private static final int EMPTY = 0;
+
+    private K[] keys;
+    private V[] values;
+    private int[] hashes;
+    private int tableSize, numElements, mask;
+    private double maxLoadFactor;
+
+    /**
+     * The ProbingHash constructor with the same default size as Hash
+     */
+    public ProbingHash() {
+        this(50000);
+    }
+
+    /**
+     * The ProbingHash constructor accepts a single parameter, an int, that
+     * sets the initial size of the Dictionary. The size is rounded up to
+     * a power of two.
+     *
+     * @param size the initial size of the dictionary
+     */
+    public ProbingHash(int size) {
+        maxLoadFactor = 0.75;
+        allocate(tableSizeFor(size));
+    }
+
+    /**
+     * Adds the given key/value pair to the dictionary.  Returns
+     * false if the dictionary is full, or if the key is a duplicate.
+     * Returns true if addition succeeded.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @return true if the key/value are added to the hash.
+     */
+    public boolean add(K key, V value) {
+        int hash = hash(key);
+
+        if (find(key, hash) >= 0)
+            return false;
+
+        if (numElements + 1 > maxLoadFactor * tableSize)
+            resize(tableSize * 2);
+
+        insert(key, value, hash);
+        numElements++;
+
+        return true;
+    }
+
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * The dictionary is sized once for the final number of entries, so
+     * no resize happens while the pairs are added. Duplicate keys are skipped.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     */
+    public int addAll(K[] keys, V[] values, int count) {
+        ensureCapacity(numElements + count);
+
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            int hash = hash(keys[i]);
+
+            if (find(keys[i], hash) < 0) {
+                insert(keys[i], values[i], hash);
+                added++;
+            }
+        }
+
+        numElements += added;
+        return added;
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     */
+    public void ensureCapacity(int expected) {
+        if (expected > maxLoadFactor * tableSize)
+            resize((int) (expected / maxLoadFactor) + 1);
+    }
+
+    /**
+     * Deletes the key/value pair identified by the key parameter.
+     * Returns true if the key/value pair was found and removed,
+     * otherwise returns false.
+     *
+     * @param key the key to remove
+     * @return true if key was removed
+     */
+    public boolean remove(K key) {
+        int slot = find(key, hash(key));
+
+        if (slot < 0)
+            return false;
+
+        // Backward shift deletion, pull every displaced entry one slot closer to home
+        int next = (slot + 1) & mask;
+        while (hashes[next] != EMPTY && distance(hashes[next], next) > 0) {
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            hashes[slot] = hashes[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+
+        keys[slot] = null;
+        values[slot] = null;
+        hashes[slot] = EMPTY;
+        numElements--;
+
+        return true;
+    }
+
+    /**
+     * Change the value associated with an existing key.
+     *
+     * @param key   The key to change
+     * @param value the new value
+     * @return true if value changed
+     */
+    public boolean changeValue(K key, V value) {
+        int slot = find(key, hash(key));
+
+        if (slot < 0)
+            return false;
+
+        values[slot] = value;
+        return true;
+    }
+
+    /**
+     * Test whether the hash has the entry associated with the key
+     *
+     * @param key the key to look for
+     * @return whether it is there.
+     */
+    public boolean contains(K key) {
+        return find(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the parameter key.
+     * Returns null if the key is not found or the dictionary is empty.
+     *
+     * @param key the key to find the value for
+     * @return the value
+     */
+    public V getValue(K key) {
+        int slot = find(key, hash(key));
+
+        if (slot < 0)
+            return null;
+
+        return values[slot];
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored in the dictionary
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return numElements;
+    }
+
+    /**
+     * Returns true if the dictionary is empty
+     *
+     * @return whether the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return numElements == 0;
+    }
+
+    /**
+     * Make the dictionary empty
+     */
+    public void makeEmpty() {
+        for (int i = 0; i < tableSize; i++) {
+            keys[i] = null;
+            values[i] = null;
+            hashes[i] = EMPTY;
+        }
+
+        numElements = 0;
+    }
+
+    /**
+     * Returns the current load factor of the dictionary (lambda)
+     *
+     * @return the loadFactor
+     */
+    public double loadFactor() {
+        return (double) numElements / tableSize;
+    }
+
+    /**
+     * Get the maximum load factor (at which point we need to resize)
+     *
+     * @return the maximum load factor of the hash
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Set the maximum load factor (at which point we need to resize).
+     * Open addressing needs at least one empty slot, so the load factor
+     * must be below 1.
+     *
+     * @param loadfactor the maximum load factor
+     */
+    public void setMaxLoadFActor(double loadfactor) {
+        if (loadfactor <= 0 || loadfactor >= 1)
+            throw new IllegalArgumentException();
+
+        maxLoadFactor = loadfactor;
+    }
+
+    /**
+     * Resizes the dictionary. The new size is rounded up to a power of two
+     * and is never smaller than the number of elements allows.
+     *
+     * @param newSize the size of the new dictionary
+     */
+    public void resize(int newSize) {
+        newSize = tableSizeFor(Math.max(newSize, (int) (numElements / maxLoadFactor) + 1));
+
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldSize = tableSize;
+
+        allocate(newSize);
+
+        // The cached hash codes are reused, no key is asked for its hashCode again
+        for (int i = 0; i < oldSize; i++)
+            if (oldHashes[i] != EMPTY)
+                insert(oldKeys[i], oldValues[i], oldHashes[i]);
+    }
+
+    /**
+     * Lookups never change the table, so there is nothing to prepare
+     */
+    public void prepareForReaders() {
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary. The iterator
+     * walks the key array in place.
+     */
+    public Iterator<K> iterator() {
+        return new IteratorHelper();
+    }
+
+    /**
+     * Private method to find the slot of a key
+     *
+     * @param key  the key to look for
+     * @param hash the cached hash code of the key
+     * @return the slot of the key or -1 if it is not in the hash
+     */
+    @SuppressWarnings("unchecked")
+    private int find(K key, int hash) {
+        int slot = hash & mask;
+
+        // An entry closer to home than we are means the key is not in the table
+        for (int dist = 0; hashes[slot] != EMPTY && dist <= distance(hashes[slot], slot); dist++) {
+            if (hashes[slot] == hash && ((Comparable<K>) keys[slot]).compareTo(key) == 0)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Private method to place a key that is known not to be in the hash
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @param hash  the cached hash code of the key
+     */
+    private void insert(K key, V value, int hash) {
+        int slot = hash & mask;
+        int dist = 0;
+
+        while (hashes[slot] != EMPTY) {
+            int existing = distance(hashes[slot], slot);
+
+            // Take from the rich, the entry closer to home moves on
+            if (existing < dist) {
+                K k = keys[slot];
+                V v = values[slot];
+                int h = hashes[slot];
+
+                keys[slot] = key;
+                values[slot] = value;
+                hashes[slot] = hash;
+
+                key = k;
+                value = v;
+                hash = h;
+                dist = existing;
+            }
+
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * The distance of an entry from its home slot
+     */
+    private int distance(int hash, int slot) {
+        return (slot - (hash & mask)) & mask;
+    }
+
+    /**
+     * Spread the key's hash code so that the low bits used for the slot
+     * depend on all of its bits. The top bit is set so that no hash
+     * code can be mistaken for an empty slot.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h | 0x80000000;
+    }
+
+    /**
+     * The smallest power of two that is at least size
+     */
+    private static int tableSizeFor(int size) {
+        int n = 16;
+        while (n < size && n < (1 << 30))
+            n <<= 1;
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int size) {
+        tableSize = size;
+        mask = size - 1;
+        keys = (K[]) new Object[size];
+        values = (V[]) new Object[size];
+        hashes = new int[size];
+    }
+
+    class IteratorHelper implements Iterator<K> {
+        int slot;
+
+        public IteratorHelper() {
+            slot = advance(0);
+        }
+
+        public boolean hasNext() {
+            return slot < tableSize;
+        }
+
+        public K next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            K key = keys[slot];
+            slot = advance(slot + 1);
+            return key;
+        }
+
+        private int advance(int from) {
+            while (from < tableSize && hashes[from] == EMPTY)
+                from++;
+            return from;
+        }
+    }
+}
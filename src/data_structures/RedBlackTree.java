@@ -1,5 +1,7 @@
 package data_structures;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -9,6 +11,7 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
 
     Node<K, V> root;
     int size;
+    int modCount;
 
     /**
      * RedBlackTree constructor
@@ -18,95 +21,162 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
         size = 0;
     }
 
+    /**
+     * Build a balanced RBTree from keys in ascending order, in linear time
+     * and without rotations
+     *
+     * @param keys   the keys, in ascending order without duplicates
+     * @param values the values, values[i] is associated with keys[i]
+     * @return the new tree
+     * @throws IllegalArgumentException if the keys are not in ascending order
+     */
+    public static <K, V> RedBlackTree<K, V> fromSorted(K[] keys, V[] values) {
+        if (values.length < keys.length)
+            throw new IllegalArgumentException("There are fewer values than keys");
+
+        return fromSorted(Arrays.asList(keys).iterator(), Arrays.asList(values).iterator(), keys.length);
+    }
+
+    /**
+     * Build a balanced RBTree from keys in ascending order, in linear time
+     * and without rotations. The keys and values are read as the tree is
+     * built, nothing else is copied.
+     *
+     * @param keys   the keys, in ascending order without duplicates
+     * @param values the values in the order of the keys, or null for no values
+     * @param size   the number of keys to read
+     * @return the new tree
+     * @throws IllegalArgumentException if the keys are not in ascending order
+     * @throws NoSuchElementException   if there are fewer than size keys
+     */
+    public static <K, V> RedBlackTree<K, V> fromSorted(Iterator<K> keys, Iterator<V> values, int size) {
+        RedBlackTree<K, V> tree = new RedBlackTree<K, V>();
+
+        if (size > 0) {
+            tree.root = tree.new Builder(keys, values, size).build(0, 0, size - 1);
+            tree.size = size;
+        }
+
+        return tree;
+    }
+
+    /**
+     * Merge two RBTrees into a new balanced RBTree in linear time. Both
+     * trees are read in order, once to count the keys and once to build.
+     * If a key is in both trees, the value from b is used.
+     *
+     * @param a the first tree
+     * @param b the second tree
+     * @return the new tree, a and b are not changed
+     */
+    public static <K, V> RedBlackTree<K, V> merge(RedBlackTree<K, V> a, RedBlackTree<K, V> b) {
+        RedBlackTree<K, V>.MergeIterator count = a.new MergeIterator(a, b);
+        int size = 0;
+        for (; count.hasNext(); count.next())
+            size++;
+
+        final RedBlackTree<K, V>.MergeIterator keys = a.new MergeIterator(a, b);
+        Iterator<V> values = new Iterator<V>() {
+            public boolean hasNext() {
+                return true;
+            }
+
+            public V next() {
+                return keys.value;
+            }
+        };
+
+        return fromSorted(keys, values, size);
+    }
+
     /**
      * The method to add to the RBTree.  It will not allow duplicate additions.
+     * The key is compared once on every level on the way down, where every
+     * node also counts the new key, and the colors are corrected on the way
+     * back up only as far as needed.
      *
      * @param key   the key to add
      * @param value the value associated with the key
      */
+    @SuppressWarnings("unchecked")
     public void add(K key, V value) {
-        Node<K, V> node = new Node<K, V>(key, value);
-
         if (root == null) {
-            root = node;
+            root = new Node<K, V>(key, value);
             root.black = true;
             size++;
+            modCount++;
             return;
         }
 
-        add(root, node);
-        root.black = true;
-        size++;
-    }
+        Comparable<K> k = (Comparable<K>) key;
+        Node<K, V> parent = root;
+        int cmp;
+
+        while (true) {
+            cmp = k.compareTo(parent.key);
+            if (cmp == 0) {
+                // The key is already there, the nodes above it did not get a key after all
+                for (Node<K, V> n = parent.parent; n != null; n = n.parent)
+                    n.count--;
+                return;
+            }
 
-    /**
-     * Private method to add to the RBTree.  It will not allow duplicate additions.
-     *
-     * @param parent  node
-     * @param newNode node
-     */
-    @SuppressWarnings("unchecked")
-    private void add(Node<K, V> parent, Node<K, V> newNode) {
-        if (((Comparable<K>) newNode.key).compareTo(parent.key) > 0) {
-            if (parent.right == null) {
-                parent.right = newNode;
-                newNode.parent = parent;
-                newNode.leftChild = false;
+            parent.count++;
+            Node<K, V> next = cmp < 0 ? parent.left : parent.right;
+            if (next == null)
+                break;
+            parent = next;
+        }
 
-            } else
-                add(parent.right, newNode);
+        Node<K, V> node = new Node<K, V>(key, value);
+        node.parent = parent;
+        if (cmp < 0) {
+            parent.left = node;
+            node.leftChild = true;
         } else {
-            if (parent.left == null) {
-                parent.left = newNode;
-                newNode.parent = parent;
-                newNode.leftChild = true;
-            } else
-                add(parent.left, newNode);
+            parent.right = node;
+            node.leftChild = false;
         }
-        checkColor(newNode);
+
+        size++;
+        modCount++;
+        checkColor(node);
     }
 
     /**
-     * The method checks the node colors for violations
+     * The method checks the node colors for violations, from the new
+     * node up, and stops as soon as the tree is corrected
      *
-     * @param node (the root node)
+     * @param node (the new node)
      */
     public void checkColor(Node<K, V> node) {
-        if (node == root) {
-            return;
-        }
+        while (node != root && !node.black && !node.parent.black)
+            node = correctTree(node);
 
-        if (!node.black && !node.parent.black)
-            correctTree(node);
-        if (node.parent != null)
-            checkColor(node.parent);
+        root.black = true;
     }
 
     /**
-     * The method corrects the tree violations
+     * The method corrects a red node with a red parent. A red uncle is
+     * recolored, which can move the violation up to the grandparent. A
+     * black uncle is fixed with a rotation, which ends the correction.
      *
      * @param node (node to check)
+     * @return the node to check next, the root once the tree is corrected
      */
-    public void correctTree(Node<K, V> node) {
-        if (node.parent.leftChild) {
-            if (node.parent.parent.right == null || node.parent.parent.right.black)
-                rotate(node);
-            else {
-                if (node.parent.parent.right != null)
-                    node.parent.parent.right.black = true;
-                node.parent.parent.black = false;
-                node.parent.black = true;
-            }
-        } else {
-            if (node.parent.parent.left == null || node.parent.parent.left.black)
-                rotate(node);
-            else {
-                if (node.parent.parent.left != null)
-                    node.parent.parent.left.black = true;
-                node.parent.parent.black = false;
-                node.parent.black = true;
-            }
+    public Node<K, V> correctTree(Node<K, V> node) {
+        Node<K, V> grandparent = node.parent.parent;
+        Node<K, V> uncle = node.parent.leftChild ? grandparent.right : grandparent.left;
+
+        if (isBlack(uncle)) {
+            rotate(node);
+            return root;
         }
+
+        uncle.black = true;
+        grandparent.black = false;
+        node.parent.black = true;
+        return grandparent;
     }
 
     /**
@@ -176,6 +246,9 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
         temp.left = node;
         node.leftChild = true;
         node.parent = temp;
+
+        temp.count = node.count;
+        node.count = count(node.left) + count(node.right) + 1;
     }
 
     /**
@@ -208,6 +281,9 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
         temp.right = node;
         node.leftChild = false;
         node.parent = temp;
+
+        temp.count = node.count;
+        node.count = count(node.left) + count(node.right) + 1;
     }
 
     /**
@@ -237,28 +313,27 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
      * @return whether the key is found
      */
     public boolean contains(K key) {
-        if (find(key, root) == null)
-            return false;
-        return true;
+        return findNode(key) != null;
     }
 
     /**
      * Private method to search the RBTree.
      *
-     * @param key  to find
-     * @param root node
-     * @return value of key that was found
+     * @param key to find
+     * @return the node with the key, or null if the key is not found
      */
     @SuppressWarnings("unchecked")
-    private V find(K key, Node<K, V> node) {
-        if (node == null)
-            return null;
-        if (((Comparable<K>) key).compareTo(node.key) < 0)
-            return find(key, node.left);
-        if (((Comparable<K>) key).compareTo(node.key) > 0)
-            return find(key, node.right);
+    private Node<K, V> findNode(K key) {
+        Node<K, V> node = root;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node;
+            node = cmp < 0 ? node.left : node.right;
+        }
 
-        return (V) node.value;
+        return null;
     }
 
     /**
@@ -268,7 +343,177 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
      * @return the current value
      */
     public V getValue(K key) {
-        return (find(key, root));
+        Node<K, V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Removes the key and its value from the RBTree.
+     *
+     * @param key the key to remove
+     * @return true if the key was found and removed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(K key) {
+        // Every node above the removed node loses one key, which is
+        // counted on the way down and undone if the key is not there
+        Node<K, V> node = root, last = null;
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                break;
+
+            node.count--;
+            last = node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        if (node == null) {
+            for (Node<K, V> n = last; n != null; n = n.parent)
+                n.count++;
+            return false;
+        }
+
+        // A node with two children takes the place of its successor,
+        // which has at most one child
+        if (node.left != null && node.right != null) {
+            node.count--;
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor.count--;
+                successor = successor.left;
+            }
+
+            node.key = successor.key;
+            node.value = successor.value;
+            node = successor;
+        }
+
+        Node<K, V> child = node.left != null ? node.left : node.right;
+
+        node.count = 0;
+
+        if (child != null) {
+            // The only child of a node is always red
+            replace(node, child);
+            child.black = true;
+        } else if (node.parent == null)
+            root = null;
+        else {
+            // Fix the tree while the removed leaf still holds its place
+            if (node.black)
+                correctRemove(node);
+
+            if (node.leftChild)
+                node.parent.left = null;
+            else
+                node.parent.right = null;
+            node.parent = null;
+        }
+
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Put the child in the place of its parent node
+     *
+     * @param node  the node to take out of the tree
+     * @param child the child of the node
+     */
+    private void replace(Node<K, V> node, Node<K, V> child) {
+        child.parent = node.parent;
+
+        if (node.parent == null)
+            root = child;
+        else if (node.leftChild) {
+            node.parent.left = child;
+            child.leftChild = true;
+        } else {
+            node.parent.right = child;
+            child.leftChild = false;
+        }
+
+        node.left = node.right = node.parent = null;
+    }
+
+    /**
+     * The method corrects the tree after a black node is removed. The
+     * path through the node is one black node short.
+     *
+     * @param node (the node with the missing black)
+     */
+    private void correctRemove(Node<K, V> node) {
+        while (node != root && isBlack(node)) {
+            Node<K, V> parent = node.parent;
+
+            if (node.leftChild) {
+                Node<K, V> sibling = parent.right;
+
+                if (!isBlack(sibling)) {
+                    sibling.black = true;
+                    parent.black = false;
+                    leftRotate(parent);
+                    sibling = parent.right;
+                }
+
+                if (isBlack(sibling.left) && isBlack(sibling.right)) {
+                    sibling.black = false;
+                    node = parent;
+                } else {
+                    if (isBlack(sibling.right)) {
+                        sibling.left.black = true;
+                        sibling.black = false;
+                        rightRotate(sibling);
+                        sibling = parent.right;
+                    }
+
+                    sibling.black = parent.black;
+                    parent.black = true;
+                    sibling.right.black = true;
+                    leftRotate(parent);
+                    node = root;
+                }
+            } else {
+                Node<K, V> sibling = parent.left;
+
+                if (!isBlack(sibling)) {
+                    sibling.black = true;
+                    parent.black = false;
+                    rightRotate(parent);
+                    sibling = parent.left;
+                }
+
+                if (isBlack(sibling.left) && isBlack(sibling.right)) {
+                    sibling.black = false;
+                    node = parent;
+                } else {
+                    if (isBlack(sibling.left)) {
+                        sibling.right.black = true;
+                        sibling.black = false;
+                        leftRotate(sibling);
+                        sibling = parent.left;
+                    }
+
+                    sibling.black = parent.black;
+                    parent.black = true;
+                    sibling.left.black = true;
+                    rightRotate(parent);
+                    node = root;
+                }
+            }
+        }
+
+        node.black = true;
+    }
+
+    private boolean isBlack(Node<K, V> node) {
+        return node == null || node.black;
+    }
+
+    private int count(Node<K, V> node) {
+        return node == null ? 0 : node.count;
     }
 
     /**
@@ -322,21 +567,219 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
         return rightHeight;
     }
 
+    /**
+     * Returns the smallest key in the RBTree
+     *
+     * @return the first key, or null if the tree is empty
+     */
+    public K first() {
+        Node<K, V> node = firstNode();
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * Returns the largest key in the RBTree
+     *
+     * @return the last key, or null if the tree is empty
+     */
+    public K last() {
+        Node<K, V> node = root;
+        if (node == null)
+            return null;
+
+        while (node.right != null)
+            node = node.right;
+        return node.key;
+    }
+
+    /**
+     * Returns the largest key less than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the floor key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public K floor(K key) {
+        Node<K, V> node = root, floor = null;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node.key;
+
+            if (cmp > 0) {
+                floor = node;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+
+        return floor == null ? null : floor.key;
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to the given key
+     *
+     * @param key the key to search for
+     * @return the ceiling key, or null if there is none
+     */
+    public K ceiling(K key) {
+        Node<K, V> node = ceilingNode(key);
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * An iterator for the keys from from, inclusive, to to, exclusive,
+     * in order. The keys are found as the iterator advances.
+     *
+     * @param from the lowest key
+     * @param to   the key to stop before
+     * @return an iterator over the keys in the range
+     */
+    public Iterator<K> subMap(K from, K to) {
+        return new IteratorHelper(ceilingNode(from), to);
+    }
+
+    /**
+     * Returns the number of keys in the RBTree that are less than the key
+     *
+     * @param key the key to rank, which does not have to be in the tree
+     * @return the number of smaller keys
+     */
+    public int rank(K key) {
+        return rank(key, false);
+    }
+
+    /**
+     * Returns the key with the given rank, the smallest key has rank 0
+     *
+     * @param index the rank of the key
+     * @return the key
+     * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        Node<K, V> node = root;
+
+        while (true) {
+            int left = count(node.left);
+            if (index == left)
+                return node.key;
+
+            if (index < left)
+                node = node.left;
+            else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys from lo to hi, both inclusive
+     *
+     * @param lo the lowest key
+     * @param hi the highest key
+     * @return the number of keys in the range
+     */
+    public int countBetween(K lo, K hi) {
+        return Math.max(rank(hi, true) - rank(lo, false), 0);
+    }
+
+    /**
+     * Count the keys less than the key, or less than or equal to it,
+     * using the number of keys below every node on the way down
+     */
+    @SuppressWarnings("unchecked")
+    private int rank(K key, boolean inclusive) {
+        Node<K, V> node = root;
+        int rank = 0;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+
+            if (cmp == 0)
+                return rank + count(node.left) + (inclusive ? 1 : 0);
+
+            if (cmp < 0)
+                node = node.left;
+            else {
+                rank += count(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return rank;
+    }
+
+    private Node<K, V> firstNode() {
+        Node<K, V> node = root;
+        if (node == null)
+            return null;
+
+        while (node.left != null)
+            node = node.left;
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V> ceilingNode(K key) {
+        Node<K, V> node = root, ceiling = null;
+
+        while (node != null) {
+            int cmp = ((Comparable<K>) key).compareTo(node.key);
+            if (cmp == 0)
+                return node;
+
+            if (cmp < 0) {
+                ceiling = node;
+                node = node.left;
+            } else
+                node = node.right;
+        }
+
+        return ceiling;
+    }
+
+    /**
+     * Returns the node with the next larger key, found through the
+     * right subtree or, without one, the parent pointers
+     *
+     * @param node the node to start from
+     * @return the next node, or null after the last node
+     */
+    private Node<K, V> successor(Node<K, V> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null)
+                node = node.left;
+            return node;
+        }
+
+        while (node.parent != null && !node.leftChild)
+            node = node.parent;
+        return node.parent;
+    }
+
     /**
      * Check the number of black nodes on each side and check if
-     * they are the same
+     * they are the same. A red node with a red child is also reported.
      *
      * @param node (root node)
      * @return number of black nodes
+     * @throws IllegalStateException if the tree is not a valid red black tree
      */
     public int blackNodes(Node<K, V> node) {
         if (node == null)
             return 1;
         int rightBlackNodes = blackNodes(node.right);
         int leftBlackNodes = blackNodes(node.left);
-        if (rightBlackNodes != leftBlackNodes) {
-            // Handle exception
-        }
+        if (rightBlackNodes != leftBlackNodes)
+            throw new IllegalStateException("The paths below " + node.key + " have different numbers of black nodes");
+        if (!node.black && (!isBlack(node.left) || !isBlack(node.right)))
+            throw new IllegalStateException("The red node " + node.key + " has a red child");
 
         if (node.black)
             leftBlackNodes++;
@@ -346,12 +789,14 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
 
     /**
      * An iterator for all the keys in the RBTree. This will
-     * iterate over the keys using In-Order Traversal
+     * iterate over the keys using In-Order Traversal. The keys are
+     * found as the iterator advances, and the iterator fails if the
+     * tree is changed while it is used.
      *
      * @see java.lang.Iterable#iterator()
      */
     public Iterator<K> iterator() {
-        return new IteratorHelper();
+        return new IteratorHelper(firstNode(), null);
     }
 
     /**
@@ -405,46 +850,146 @@ public class RedBlackTree<K, V> implements RedBlackI<K, V> {
         V value;
         Node<K, V> left, right, parent;
         boolean leftChild, black;
+        int count;
 
         public Node(K key, V value) {
             this.key = key;
             this.value = value;
+            count = 1;
             left = right = parent = null;
             black = false;
             leftChild = false;
         }
     }
 
+    /**
+     * An in order walk from node to successor node through the parent
+     * pointers, in constant memory
+     */
     class IteratorHelper implements Iterator<K> {
 
-        int index;
-        K[] array;
+        Node<K, V> next;
+        K to;
+        int expectedModCount;
+
+        /**
+         * @param from the first node, or null for none
+         * @param to   the key to stop before, or null to run to the end
+         */
+        public IteratorHelper(Node<K, V> from, K to) {
+            this.to = to;
+            next = from;
+            expectedModCount = modCount;
+            checkEnd();
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public K next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            K key = next.key;
+            next = successor(next);
+            checkEnd();
+            return key;
+        }
 
         @SuppressWarnings("unchecked")
-        public IteratorHelper() {
-            index = 0;
-            inOrder(root);
-            index = 0;
-            array = (K[]) new Object[size];
+        private void checkEnd() {
+            if (to != null && next != null && ((Comparable<K>) next.key).compareTo(to) >= 0)
+                next = null;
         }
+    }
 
-        public boolean hasNext() {
-            return index < array.length;
+    /**
+     * Builds the tree from the middle key down. Every level is full except
+     * the deepest one, whose nodes are red, so every path has the same
+     * number of black nodes.
+     */
+    class Builder {
+
+        Iterator<K> keys;
+        Iterator<V> values;
+        K previous;
+        int redLevel;
+
+        public Builder(Iterator<K> keys, Iterator<V> values, int size) {
+            this.keys = keys;
+            this.values = values;
+            previous = null;
+            // The depth of the deepest level, if it is not full
+            redLevel = 31 - Integer.numberOfLeadingZeros(size + 1);
         }
 
-        public void inOrder(Node<K, V> node) {
-            if (node != null) {
-                inOrder(node.left);
-                array[index++] = node.key;
-                inOrder(node.right);
+        @SuppressWarnings("unchecked")
+        public Node<K, V> build(int level, int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            Node<K, V> left = lo < mid ? build(level + 1, lo, mid - 1) : null;
+
+            K key = keys.next();
+            if (previous != null && ((Comparable<K>) previous).compareTo(key) >= 0)
+                throw new IllegalArgumentException("The keys are not in ascending order at " + key);
+            previous = key;
+
+            Node<K, V> node = new Node<K, V>(key, values == null ? null : values.next());
+            node.black = level != redLevel;
+            node.count = hi - lo + 1;
+
+            if (left != null) {
+                node.left = left;
+                left.parent = node;
+                left.leftChild = true;
             }
+
+            if (mid < hi) {
+                Node<K, V> right = build(level + 1, mid + 1, hi);
+                node.right = right;
+                right.parent = node;
+                right.leftChild = false;
+            }
+
+            return node;
+        }
+    }
+
+    /**
+     * Walks two trees in order at the same time and returns every key once.
+     * The value of the last key is kept in value.
+     */
+    class MergeIterator implements Iterator<K> {
+
+        Node<K, V> a, b;
+        V value;
+
+        public MergeIterator(RedBlackTree<K, V> a, RedBlackTree<K, V> b) {
+            this.a = a.firstNode();
+            this.b = b.firstNode();
+        }
+
+        public boolean hasNext() {
+            return a != null || b != null;
         }
 
+        @SuppressWarnings("unchecked")
         public K next() {
             if (!hasNext())
                 throw new NoSuchElementException();
 
-            return array[index++];
+            int cmp = a == null ? 1 : b == null ? -1 : ((Comparable<K>) a.key).compareTo(b.key);
+            Node<K, V> node = cmp < 0 ? a : b;
+
+            if (cmp <= 0)
+                a = successor(a);
+            if (cmp >= 0)
+                b = successor(b);
+
+            value = node.value;
+            return node.key;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+package dns_resolver;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import data_structures.Hash;
+import data_structures.HashList;
+import interfaces.HashI;
+
+/**
+ * The AddressIndex is a URL to IPAddress dictionary that also answers the reverse question:
+ * which URLs map to an IP address. It wraps the forward table and keeps a second Hash from
+ * every IPAddress to the list of its URLs, which is updated by add, remove and changeValue.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class AddressIndex implements HashI<URL, IPAddress> {
+
+    // Rough object sizes, in bytes, for a 64 bit JVM with compressed references
+    private static final int REFERENCE = 4;
+    private static final int ELEMENT = 24;
+    private static final int LIST = 24;
+    private static final int NODE = 24;
+
+    private HashI<URL, IPAddress> url2ip;
+    private Hash<IPAddress, HashList<URL>> ip2url;
+
+    /**
+     * Index the URLs of an existing table. All changes must go through
+     * the AddressIndex from now on, or the reverse index is out of date.
+     *
+     * @param url2ip the forward table
+     */
+    public AddressIndex(HashI<URL, IPAddress> url2ip) {
+        this.url2ip = url2ip;
+        ip2url = new Hash<IPAddress, HashList<URL>>(16);
+        ip2url.ensureCapacity(url2ip.size());
+
+        for (URL url : url2ip)
+            link(url2ip.getValue(url), url);
+    }
+
+    /**
+     * Returns an Iterator of the URLs that map to the IP address
+     *
+     * @param ip the address to look up
+     * @return the URLs of the address, possibly none
+     */
+    public Iterator<URL> getURLs(IPAddress ip) {
+        HashList<URL> urls = ip2url.getValue(ip);
+
+        if (urls == null)
+            return Collections.emptyIterator();
+
+        return urls.iterator();
+    }
+
+    /**
+     * Returns the number of URLs that map to the IP address
+     *
+     * @param ip the address to look up
+     * @return the number of URLs of the address
+     */
+    public int countURLs(IPAddress ip) {
+        HashList<URL> urls = ip2url.getValue(ip);
+
+        if (urls == null)
+            return 0;
+
+        return urls.size();
+    }
+
+    /**
+     * An estimate of the memory used by the reverse index, not counting
+     * the URLs and IPAddresses that are shared with the forward table.
+     * The buckets are only created when they are first used, so at most
+     * one bucket list is counted for every address.
+     *
+     * @return the estimated size of the reverse index in bytes
+     */
+    public long reverseIndexBytes() {
+        long buckets = ip2url.tableSize();
+
+        return buckets * REFERENCE + Math.min(buckets, ip2url.size()) * LIST
+                + (long) ip2url.size() * (NODE + ELEMENT + LIST)
+                + (long) url2ip.size() * NODE;
+    }
+
+    /**
+     * Adds the given key/value pair to the dictionary.  Returns
+     * false if the dictionary is full, or if the key is a duplicate.
+     * Returns true if addition succeeded.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @return true if the key/value are added to the hash.
+     */
+    public boolean add(URL key, IPAddress value) {
+        if (url2ip.contains(key) || !url2ip.add(key, value))
+            return false;
+
+        link(value, key);
+        return true;
+    }
+
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * Both tables are sized once for the final number of entries.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     */
+    public int addAll(URL[] keys, IPAddress[] values, int count) {
+        ensureCapacity(size() + count);
+
+        int added = 0;
+        for (int i = 0; i < count; i++)
+            if (add(keys[i], values[i]))
+                added++;
+
+        return added;
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     */
+    public void ensureCapacity(int expected) {
+        url2ip.ensureCapacity(expected);
+        ip2url.ensureCapacity(expected);
+    }
+
+    /**
+     * Deletes the key/value pair identified by the key parameter.
+     * Returns true if the key/value pair was found and removed,
+     * otherwise returns false.
+     *
+     * @param key the key to remove
+     * @return true if key was removed
+     */
+    public boolean remove(URL key) {
+        IPAddress ip = url2ip.getValue(key);
+
+        if (ip == null || !url2ip.remove(key))
+            return false;
+
+        unlink(ip, key);
+        return true;
+    }
+
+    /**
+     * Change the value associated with an existing key.
+     *
+     * @param key   The key to change
+     * @param value the new value
+     * @return true if value changed
+     */
+    public boolean changeValue(URL key, IPAddress value) {
+        IPAddress ip = url2ip.getValue(key);
+
+        if (ip == null || !url2ip.changeValue(key, value))
+            return false;
+
+        unlink(ip, key);
+        link(value, key);
+        return true;
+    }
+
+    /**
+     * Test whether the hash has the entry associated with the key
+     *
+     * @param key the key to look for
+     * @return whether it is there.
+     */
+    public boolean contains(URL key) {
+        return url2ip.contains(key);
+    }
+
+    /**
+     * Returns the value associated with the parameter key.
+     * Returns null if the key is not found or the dictionary is empty.
+     *
+     * @param key the key to find the value for
+     * @return the value
+     */
+    public IPAddress getValue(URL key) {
+        return url2ip.getValue(key);
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored in the dictionary
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return url2ip.size();
+    }
+
+    /**
+     * Returns true if the dictionary is empty
+     *
+     * @return whether the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return url2ip.isEmpty();
+    }
+
+    /**
+     * Make the dictionary empty
+     */
+    public void makeEmpty() {
+        url2ip.makeEmpty();
+        ip2url.makeEmpty();
+    }
+
+    /**
+     * Returns the current load factor of the dictionary (lambda)
+     *
+     * @return the loadFactor
+     */
+    public double loadFactor() {
+        return url2ip.loadFactor();
+    }
+
+    /**
+     * Get the maximum load factor (at which point we need to resize)
+     *
+     * @return the maximum load factor of the hash
+     */
+    public double getMaxLoadFactor() {
+        return url2ip.getMaxLoadFactor();
+    }
+
+    /**
+     * Set the maximum load factor (at which point we need to resize)
+     *
+     * @param loadfactor the maximum load factor
+     */
+    public void setMaxLoadFActor(double loadfactor) {
+        url2ip.setMaxLoadFActor(loadfactor);
+    }
+
+    /**
+     * Resizes the forward table
+     *
+     * @param newSize the size of the new dictionary
+     */
+    public void resize(int newSize) {
+        url2ip.resize(newSize);
+    }
+
+    /**
+     * Prepares the forward table and the reverse index for readers
+     */
+    public void prepareForReaders() {
+        url2ip.prepareForReaders();
+        ip2url.prepareForReaders();
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary
+     */
+    public Iterator<URL> iterator() {
+        return url2ip.iterator();
+    }
+
+    private void link(IPAddress ip, URL url) {
+        HashList<URL> urls = ip2url.getValue(ip);
+
+        if (urls == null) {
+            urls = new HashList<URL>();
+            ip2url.add(ip, urls);
+        }
+
+        urls.add(url);
+    }
+
+    private void unlink(IPAddress ip, URL url) {
+        HashList<URL> urls = ip2url.getValue(ip);
+
+        urls.remove(url);
+        if (urls.isEmpty())
+            ip2url.remove(ip);
+    }
+}
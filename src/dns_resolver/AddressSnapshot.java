@@ -0,0 +1,165 @@
+package dns_resolver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import data_structures.Hash;
+import exceptions.FileFormatException;
+import interfaces.HashI;
+
+/**
+ * The AddressSnapshot saves a loaded URL to IPAddress table in a compact binary file, so the
+ * DNS_Resolver can start without parsing the text address file again. The file holds the
+ * number of entries followed by every URL and its IP address packed into an int:
+ * <pre>
+ * magic, version, count                   (3 ints)
+ * count times: length, URL bytes, address (short, UTF-8 bytes, int)
+ * </pre>
+ * A snapshot is written to a temporary file that replaces the old snapshot only when it is
+ * complete. A snapshot that can not be read is ignored and the text file is parsed again.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class AddressSnapshot {
+
+    private static final int MAGIC = 0x444E5353; // "DNSS"
+    private static final int VERSION = 1;
+
+    /**
+     * Load the addresses from the snapshot of the text file if the snapshot is
+     * newer than the text file. Otherwise the text file is parsed and a new
+     * snapshot is written next to it.
+     *
+     * @param textFile the text address file
+     * @return the table of addresses
+     * @throws FileFormatException if the text file has a bad format
+     * @throws IOException         if the snapshot can not be read
+     */
+    public static HashI<URL, IPAddress> load(String textFile) throws FileFormatException, IOException {
+        File text = new File(textFile);
+        File snapshot = new File(textFile + ".bin");
+
+        if (snapshot.exists() && snapshot.lastModified() >= text.lastModified()) {
+            try {
+                return read(snapshot.getPath());
+            } catch (IOException e) {
+                System.err.println("The snapshot " + snapshot + " could not be read, parsing " + textFile);
+            }
+        }
+
+        HashI<URL, IPAddress> table = new LoadInternetAddresses().load_addresses(textFile);
+
+        try {
+            write(table, snapshot.getPath());
+        } catch (IOException e) {
+            System.err.println("The snapshot " + snapshot + " could not be written");
+        }
+
+        return table;
+    }
+
+    /**
+     * Write the table to a snapshot file. The snapshot is written to a
+     * temporary file first, which then replaces the file in one step, so a
+     * failed write never leaves a partial snapshot behind.
+     *
+     * @param table the table to save
+     * @param file  the snapshot file
+     * @throws IOException if the file can not be written, or a URL is longer than 65535 bytes
+     */
+    public static void write(HashI<URL, IPAddress> table, String file) throws IOException {
+        Path target = Paths.get(file);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try {
+            try (FileOutputStream stream = new FileOutputStream(tmp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(table.size());
+
+                for (URL url : table) {
+                    byte[] bytes = url.toString().getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > 0xFFFF)
+                        throw new IOException("A URL of " + bytes.length + " bytes is too long for a snapshot");
+
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                    out.writeInt(table.getValue(url).toInt());
+                }
+
+                out.flush();
+                stream.getFD().sync();
+            }
+
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read a snapshot file into a new Hash
+     *
+     * @param file the snapshot file
+     * @return the table of addresses
+     * @throws IOException if the file can not be read or is not a snapshot
+     */
+    public static HashI<URL, IPAddress> read(String file) throws IOException {
+        return read(file, new Hash<URL, IPAddress>(16));
+    }
+
+    /**
+     * Read a snapshot file into the given table. The whole file is read
+     * at once and the entries are added with a single addAll.
+     *
+     * @param file  the snapshot file
+     * @param table the table to add the addresses to
+     * @return the table
+     * @throws IOException if the file can not be read, is not a snapshot or is cut short
+     */
+    public static HashI<URL, IPAddress> read(String file, HashI<URL, IPAddress> table) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(file)));
+
+        if (in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != VERSION)
+            throw new IOException(file + " is not an address snapshot");
+
+        int count = in.getInt();
+        // Every entry takes at least 6 bytes
+        if (count < 0 || count > in.remaining() / 6)
+            throw new IOException(file + " is corrupt, it can not hold " + count + " entries");
+
+        URL[] urls = new URL[count];
+        IPAddress[] addresses = new IPAddress[count];
+        byte[] array = in.array();
+
+        for (int i = 0; i < count; i++) {
+            if (in.remaining() < 2)
+                throw new IOException(file + " is cut short after " + i + " entries");
+
+            int length = in.getShort() & 0xFFFF;
+            if (in.remaining() < length + 4)
+                throw new IOException(file + " is cut short after " + i + " entries");
+
+            urls[i] = new URL(new String(array, in.position(), length, StandardCharsets.UTF_8));
+            in.position(in.position() + length);
+            addresses[i] = new IPAddress(in.getInt());
+        }
+
+        if (in.hasRemaining())
+            throw new IOException(file + " has " + in.remaining() + " bytes after the last entry");
+
+        table.addAll(urls, addresses, count);
+        return table;
+    }
+}
@@ -0,0 +1,276 @@
+package dns_resolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+import exceptions.FileFormatException;
+import interfaces.HashI;
+
+/**
+ * The DNSServer answers DNS queries for A records (IPv4 addresses) over UDP on the local
+ * machine, using the URL to IPAddress table. This lets ordinary DNS clients, such as dig or
+ * a load generator like dnsperf, query the table:
+ * <pre>
+ * dig @127.0.0.1 -p 5353 edwards.sdsu.edu
+ * </pre>
+ * The query and response buffers and the builder for the queried name are allocated once and
+ * reused for every packet. The lookup itself still allocates: the table is keyed by URL, which
+ * can only be made from a String, so every query creates a String and a URL for its name, and
+ * the channel returns a new address for every client. Only
+ * single question queries of the standard query opcode are answered, other queries get a
+ * format error or not implemented response. Unknown URLs get a name error (NXDOMAIN) and
+ * questions for a class other than IN are refused. If the lookup fails the client gets a
+ * server failure (SERVFAIL) and the server goes on with the next packet.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ * @see <a href="https://tools.ietf.org/html/rfc1035">RFC 1035 Domain names</a>
+ */
+public class DNSServer implements Closeable {
+
+    private static final int MAX_PACKET = 4096;
+    private static final int MAX_NAME = 255;
+    private static final int HEADER = 12;
+    private static final int TTL = 300;
+
+    private static final int TYPE_A = 1;
+    private static final int TYPE_ANY = 255;
+    private static final int CLASS_IN = 1;
+    private static final int CLASS_ANY = 255;
+
+    private static final int NOERROR = 0;
+    private static final int FORMERR = 1;
+    private static final int SERVFAIL = 2;
+    private static final int NXDOMAIN = 3;
+    private static final int NOTIMP = 4;
+    private static final int REFUSED = 5;
+
+    private final HashI<URL, IPAddress> url2ip;
+    private final DatagramChannel channel;
+    private final ByteBuffer query;
+    private final ByteBuffer response;
+    private final StringBuilder name;
+    private int questionEnd;
+
+    /**
+     * Start a server on the loopback address
+     *
+     * @param url2ip the table to answer queries from
+     * @param port   the UDP port to listen on, 0 for any free port
+     * @throws IOException if the port can not be opened
+     */
+    public DNSServer(HashI<URL, IPAddress> url2ip, int port) throws IOException {
+        this.url2ip = url2ip;
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+
+        query = ByteBuffer.allocateDirect(MAX_PACKET);
+        response = ByteBuffer.allocateDirect(MAX_PACKET);
+        name = new StringBuilder(255);
+    }
+
+    /**
+     * @return the UDP port the server listens on
+     * @throws IOException if the port can not be read
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Answer queries until the server is closed
+     *
+     * @throws IOException if a packet can not be received or sent
+     */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                query.clear();
+                SocketAddress client = channel.receive(query);
+                query.flip();
+
+                boolean reply;
+                try {
+                    reply = answer();
+                } catch (RuntimeException e) {
+                    reply = failure();
+                }
+
+                if (reply)
+                    channel.send(response, client);
+            }
+        } catch (ClosedChannelException e) {
+            // The server was closed
+        }
+    }
+
+    /**
+     * Stop the server
+     *
+     * @throws IOException if the port can not be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Build the response to the packet in the query buffer
+     *
+     * @return false if the packet is not a query and should be ignored
+     */
+    private boolean answer() {
+        questionEnd = HEADER;
+        if (query.limit() < HEADER)
+            return false;
+
+        int flags = query.getShort(2) & 0xFFFF;
+        if ((flags & 0x8000) != 0)
+            return false;
+
+        int opcode = flags >>> 11 & 0xF;
+        if (opcode != 0)
+            return error(flags, NOTIMP, HEADER);
+
+        if ((query.getShort(4) & 0xFFFF) != 1)
+            return error(flags, FORMERR, HEADER);
+
+        int end = readName(HEADER);
+        if (end < 0 || end + 4 > query.limit())
+            return error(flags, FORMERR, HEADER);
+
+        int type = query.getShort(end) & 0xFFFF;
+        int qclass = query.getShort(end + 2) & 0xFFFF;
+        end += 4;
+        questionEnd = end;
+
+        // The table only has Internet addresses
+        if (qclass != CLASS_IN && qclass != CLASS_ANY)
+            return error(flags, REFUSED, end);
+
+        // A String and a URL for every query, the table needs a URL key
+        IPAddress ip = url2ip.getValue(new URL(name.toString()));
+        if (ip == null)
+            return error(flags, NXDOMAIN, end);
+
+        boolean found = type == TYPE_A || type == TYPE_ANY;
+        header(flags, NOERROR, end, found ? 1 : 0);
+
+        if (found) {
+            response.putShort((short) (0xC000 | HEADER)); // The name of the question
+            response.putShort((short) TYPE_A);
+            response.putShort((short) CLASS_IN);
+            response.putInt(TTL);
+            response.putShort((short) 4);
+            response.putInt(ip.toInt());
+        }
+
+        response.flip();
+        return true;
+    }
+
+    /**
+     * Build a server failure response to a query whose answer failed
+     *
+     * @return false if the packet is not a query and should be ignored
+     */
+    private boolean failure() {
+        if (query.limit() < HEADER || (query.getShort(2) & 0x8000) != 0)
+            return false;
+
+        return error(query.getShort(2) & 0xFFFF, SERVFAIL, questionEnd);
+    }
+
+    /**
+     * Build a response without answers
+     *
+     * @param flags the flags of the query
+     * @param rcode the response code
+     * @param end   the end of the question section, which is copied
+     * @return true, the response is sent
+     */
+    private boolean error(int flags, int rcode, int end) {
+        header(flags, rcode, end, 0);
+        response.flip();
+        return true;
+    }
+
+    /**
+     * Write the response header and copy the question section of the query
+     */
+    private void header(int flags, int rcode, int end, int answers) {
+        response.clear();
+        response.putShort(query.getShort(0));
+        // QR and AA set, the opcode and RD copied from the query
+        response.putShort((short) (0x8400 | (flags & 0x7900) | rcode));
+        response.putShort((short) (end > HEADER ? 1 : 0));
+        response.putShort((short) answers);
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+
+        for (int i = HEADER; i < end; i++)
+            response.put(query.get(i));
+    }
+
+    /**
+     * Read the name of the question into the name buffer, in lower case
+     *
+     * @param at the position of the name in the query
+     * @return the position after the name, or -1 if the name is malformed
+     */
+    private int readName(int at) {
+        int start = at;
+        name.setLength(0);
+
+        while (at < query.limit()) {
+            int length = query.get(at++) & 0xFF;
+
+            if (length == 0)
+                return name.length() == 0 ? -1 : at;
+            // Compression pointers and extended labels do not belong in a question
+            if (length > 63 || at + length > query.limit())
+                return -1;
+            // The whole name, with the length bytes and the final zero, is at most 255 bytes
+            if (at + length + 1 - start > MAX_NAME)
+                return -1;
+
+            if (name.length() > 0)
+                name.append('.');
+
+            for (int i = 0; i < length; i++) {
+                char c = (char) (query.get(at++) & 0xFF);
+                name.append(c >= 'A' && c <= 'Z' ? (char) (c + 'a' - 'A') : c);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Load the address table and answer queries on the loopback address.
+     * The arguments are the address file and the port, by default
+     * src/data/ips_small.txt and 5353.
+     *
+     * @param args the address file and the port
+     */
+    public static void main(String[] args) {
+        String file = args.length > 0 ? args[0] : "src/data/ips_small.txt";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5353;
+
+        try (DNSServer server = new DNSServer(AddressSnapshot.load(file), port)) {
+            System.out.println("Answering DNS queries on 127.0.0.1 port " + server.getPort());
+            server.serve();
+        } catch (FileFormatException e) {
+            System.err.println("There was a file format exception");
+            e.printStackTrace();
+        } catch (IOException e) {
+            System.err.println("The DNS server could not run");
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package dns_resolver;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.Scanner;
 
+import data_structures.FilteredHash;
 import exceptions.FileFormatException;
 import interfaces.HashI;
 
@@ -9,7 +19,12 @@ import interfaces.HashI;
  * The DNS_Resolver code will ask you to enter a URL and will give you the IP address
  * associated with the URL. In Eclipse, you can type a machine name into the Console window
  * and it will return the IP address. Press the red square or type quit
- * to stop the application running.
+ * to stop the application running. Typing an IP address instead lists the URLs
+ * that map to it.
+ * <p>
+ * Given a file name as argument, the resolver instead resolves every line of the file
+ * in batches and writes the results to the standard output. Use - to read the
+ * URLs from the standard input.
  *
  * @author Khaled Elsayed
  * CS 310 - Edwards
@@ -17,19 +32,34 @@ import interfaces.HashI;
 public class DNS_Resolver {
 
     public static void main(String[] args) {
-        LoadInternetAddresses loader = new LoadInternetAddresses();
-
         HashI<URL, IPAddress> url2ip = null;
         try {
             // Change the two lines below to switch between the small and large
             // data sets. Use the small data set for initial development and testing.
-            url2ip = loader.load_addresses("src/data/ips_small.txt");
-            //url2ip = loader.load_addresses("src/data/ips.txt");
+            // A binary snapshot is kept next to the data set, so only the first run parses it.
+            url2ip = AddressSnapshot.load("src/data/ips_small.txt");
+            //url2ip = AddressSnapshot.load("src/data/ips.txt");
         } catch (FileFormatException e) {
             System.err.println("There was a file format exception");
             e.printStackTrace();
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("The address snapshot could not be read");
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        // Most lookups are for unknown URLs, the filter answers those without the table
+        url2ip = new FilteredHash<URL, IPAddress>(url2ip, 0.01);
+
+        if (args.length > 0) {
+            resolveStream(url2ip, args[0]);
+            return;
         }
 
+        AddressIndex ip2url = new AddressIndex(url2ip);
+        url2ip = ip2url;
+
         System.out.print("Please enter a URL to find the IP address for. To exit, ");
         System.out.println("type quit and press return\nFor example:\nURL > edwards.sdsu.edu");
         URL request = new URL("edwards.sdsu.edu");
@@ -38,12 +68,19 @@ public class DNS_Resolver {
         else
             System.out.println("Error 404: The URL " + request + " is unknown");
 
+        @SuppressWarnings("resource")
+        Scanner input = new Scanner(System.in);
         while (true) {
             System.out.print("URL > ");
-            @SuppressWarnings("resource")
-            String ask = new Scanner(System.in).nextLine();
+            if (!input.hasNextLine())
+                System.exit(0);
+            String ask = input.nextLine();
             if (ask.equals("quit"))
                 System.exit(0);
+            if (isAddress(ask)) {
+                reverseLookup(ip2url, new IPAddress(ask));
+                continue;
+            }
             URL tofind = new URL(ask);
             if (url2ip.contains(tofind))
                 System.out.println("The IP address for " + tofind + " is " + url2ip.getValue(tofind));
@@ -52,4 +89,51 @@ public class DNS_Resolver {
         }
     }
 
+    /**
+     * Resolve every line of a file, or of the standard input, and print the results.
+     * The file is read as UTF-8. The standard input is left open.
+     *
+     * @param url2ip the table of addresses
+     * @param file   the file with one URL per line, or - for the standard input
+     */
+    private static void resolveStream(HashI<URL, IPAddress> url2ip, String file) {
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+
+        try (ResolverService service = new ResolverService(url2ip)) {
+            if (file.equals("-"))
+                service.resolveStream(new InputStreamReader(System.in, StandardCharsets.UTF_8), out);
+            else
+                try (Reader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                    service.resolveStream(in, out);
+                }
+        } catch (IOException e) {
+            System.err.println("The URLs could not be read from " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Print every URL that maps to the IP address
+     *
+     * @param ip2url the table with the reverse index
+     * @param ip     the address to look up
+     */
+    private static void reverseLookup(AddressIndex ip2url, IPAddress ip) {
+        if (ip2url.countURLs(ip) == 0) {
+            System.out.println("Error 404: The IP address " + ip + " is unknown");
+            return;
+        }
+
+        for (Iterator<URL> it = ip2url.getURLs(ip); it.hasNext(); )
+            System.out.println("The URL for " + ip + " is " + it.next());
+    }
+
+    private static boolean isAddress(String ask) {
+        try {
+            IPAddress.parse(ask, 0, ask.length());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package dns_resolver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The HostName is a hash table key for host names that does the expensive work once. The
+ * name is put in lower case (host names are not case sensitive) and without a trailing dot
+ * when the HostName is created, and its hash code is computed right away.
+ * <p>
+ * HostNames are ordered label by label from the right, the way DNS zones nest, so that
+ * all the hosts of a zone such as sdsu.edu sort next to each other. The reversed form
+ * (edu.sdsu.edwards for edwards.sdsu.edu) is kept for that.
+ * <p>
+ * HostName.intern returns one shared HostName for every name. Comparing two interned
+ * HostNames is a reference comparison, and a bucket scan in a Hash only compares the
+ * cached hash codes until it reaches the same object. The pool is a LinkedHashMap in access
+ * order with room for POOL_CAPACITY names, so names that are not used any more are evicted
+ * instead of being kept for ever. A name that was evicted gets a new HostName, which is still equal
+ * to the old one.
+ * <p>
+ * The normalization is also used on its own by the HostTrie, which stores plain strings.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class HostName implements Comparable<HostName> {
+
+    // Most names kept in the intern pool
+    public static final int POOL_CAPACITY = 1 << 16;
+
+    // Least recently interned names are dropped first
+    private static final Map<String, HostName> pool = Collections.synchronizedMap(
+            new LinkedHashMap<String, HostName>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                protected boolean removeEldestEntry(Map.Entry<String, HostName> eldest) {
+                    return size() > POOL_CAPACITY;
+                }
+            });
+
+    private final String name;
+    private final String reversed;
+    private final int hash;
+
+    /**
+     * The constructor for the HostName class
+     *
+     * @param name the host name, in any case
+     */
+    public HostName(String name) {
+        this.name = normalize(name);
+        reversed = reverse(this.name);
+        hash = this.name.hashCode();
+    }
+
+    /**
+     * Returns the shared HostName for the name, creating it on first use.
+     * The pool is thread safe and keeps the POOL_CAPACITY most recently
+     * interned names.
+     *
+     * @param name the host name, in any case
+     * @return the HostName
+     */
+    public static HostName intern(String name) {
+        // One call to the pool, so two threads never create the same name twice
+        return pool.computeIfAbsent(normalize(name), HostName::new);
+    }
+
+    /**
+     * @return the number of names in the intern pool
+     */
+    public static int poolSize() {
+        return pool.size();
+    }
+
+    /**
+     * @return the labels of the name from right to left, separated by periods
+     */
+    public String getReversed() {
+        return reversed;
+    }
+
+    /**
+     * @return the cached hash code of the name
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @param obj, the Object to test
+     * @return true if both objects are the same host name
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof HostName))
+            return false;
+
+        HostName other = (HostName) obj;
+        return hash == other.hash && name.equals(other.name);
+    }
+
+    /**
+     * @return the host name in lower case
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Compare the names label by label, starting with the top level domain
+     *
+     * @param obj the HostName to compare to
+     * @return a negative number, zero or a positive number if this name sorts before, equal or after
+     */
+    @Override
+    public int compareTo(HostName obj) {
+        if (this == obj)
+            return 0;
+
+        String a = reversed, b = obj.reversed;
+        int length = Math.min(a.length(), b.length());
+
+        for (int i = 0; i < length; i++) {
+            char ca = a.charAt(i), cb = b.charAt(i);
+
+            // The end of a label sorts before any other character
+            if (ca != cb)
+                return (ca == '.' ? 0 : ca) - (cb == '.' ? 0 : cb);
+        }
+
+        return a.length() - b.length();
+    }
+
+    /**
+     * Put the name in lower case and drop a trailing dot. The name is only
+     * copied if it changes.
+     */
+    static String normalize(String name) {
+        int end = name.endsWith(".") ? name.length() - 1 : name.length();
+
+        for (int i = 0; i < end; i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = name.substring(0, end).toCharArray();
+                for (int j = i; j < end; j++)
+                    if (chars[j] >= 'A' && chars[j] <= 'Z')
+                        chars[j] += 'a' - 'A';
+                return new String(chars);
+            }
+        }
+
+        return end == name.length() ? name : name.substring(0, end);
+    }
+
+    /**
+     * Reverse the order of the labels, edwards.sdsu.edu becomes edu.sdsu.edwards
+     */
+    static String reverse(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        int end = name.length();
+
+        for (int i = end - 1; i >= -1; i--)
+            if (i < 0 || name.charAt(i) == '.') {
+                if (sb.length() > 0)
+                    sb.append('.');
+                sb.append(name, i + 1, end);
+                end = i;
+            }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,416 @@
+package dns_resolver;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import data_structures.Stack;
+
+/**
+ * The HostTrie stores host names by their labels from right to left, so edwards.sdsu.edu is
+ * found by following edu, then sdsu, then edwards. Every zone is a single node, shared by all
+ * the hosts below it.
+ * <p>
+ * The trie is path compressed: a chain of labels without records or branches is one edge,
+ * kept as the part of the host name it spells, so a host that is alone in its zone costs a
+ * single node and a single string. A node keeps its children in a sorted array that is
+ * searched by binary search. A node with many children, such as a top level domain, keeps
+ * them in an open addressing table of the same array instead. Lookups compare the labels in
+ * place and do not create strings.
+ * <p>
+ * Besides exact names, a zone can have a wildcard record, added as *.sdsu.edu, that answers
+ * for names below the zone. As RFC 4592 describes, only the wildcard of the closest encloser
+ * of a name applies, that is of the longest part of the name that is in the trie. A name
+ * that is in the trie, even only as part of a longer name, is never answered by a wildcard.
+ * The trie can also list all the hosts of a zone.
+ *
+ * @param <V> The value stored for every host name
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class HostTrie<V> {
+
+    // Children of one node that are kept in a sorted array before it switches to a table
+    static final int MAX_ARRAY = 16;
+
+    Node<V> root;
+    private int size;
+
+    /**
+     * HostTrie constructor
+     */
+    public HostTrie() {
+        root = new Node<V>("");
+        size = 0;
+    }
+
+    /**
+     * Add a host name, or a wildcard such as *.sdsu.edu. A name that is
+     * already in the trie gets the new value.
+     *
+     * @param host  the host name, in any case
+     * @param value the value for the name
+     */
+    public void add(String host, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("The value can not be null");
+
+        host = HostName.normalize(host);
+        boolean wildcard = host.startsWith("*.");
+        if (wildcard)
+            host = host.substring(2);
+
+        Node<V> node = root;
+        int end = host.length();
+        while (end > 0) {
+            int start = host.lastIndexOf('.', end - 1) + 1;
+            Node<V> child = node.child(host, start, end);
+
+            if (child == null) {
+                // The rest of the name is a new edge
+                child = new Node<V>(host.substring(0, end));
+                node.addChild(child);
+                node = child;
+                break;
+            }
+
+            int rest = match(child.edge, host, end);
+            end -= child.edge.length() - rest;
+
+            // The name leaves the edge, or ends inside it, so the edge is split there
+            if (rest > 0)
+                child = splitEdge(node, child, rest);
+
+            node = child;
+        }
+
+        if (wildcard) {
+            if (node.wildcard == null)
+                size++;
+            node.wildcard = value;
+        } else {
+            if (node.value == null)
+                size++;
+            node.value = value;
+        }
+    }
+
+    /**
+     * Find the value of a host name. A name without a node of its own gets
+     * the value of the wildcard of its closest encloser, if it has one. A
+     * name that is in the trie without a record, because longer names end
+     * in it, is not answered by a wildcard.
+     *
+     * @param host the host name, in any case
+     * @return the value, or null if neither the name nor a wildcard matches
+     */
+    public V lookup(String host) {
+        host = HostName.normalize(host);
+
+        Node<V> node = root;
+        int end = host.length();
+        while (end > 0) {
+            int start = host.lastIndexOf('.', end - 1) + 1;
+            Node<V> child = node.child(host, start, end);
+
+            // The node is the closest encloser
+            if (child == null)
+                return node.wildcard;
+
+            // The name, or its closest encloser, is inside the edge, where there are no records
+            int rest = match(child.edge, host, end);
+            if (rest > 0)
+                return null;
+
+            end -= child.edge.length() - rest;
+            node = child;
+        }
+
+        return node.value;
+    }
+
+    /**
+     * Returns an Iterator of all the host names with a record in the zone,
+     * including the zone itself. Wildcard records are listed as *.zone.
+     *
+     * @param zone the zone, for example sdsu.edu, or an empty string for every name
+     * @return the host names of the zone
+     */
+    public Iterator<String> zone(String zone) {
+        zone = HostName.normalize(zone);
+
+        Node<V> node = root;
+        String name = "";
+        int end = zone.length();
+        while (end > 0 && node != null) {
+            int start = zone.lastIndexOf('.', end - 1) + 1;
+            Node<V> child = node.child(zone, start, end);
+
+            if (child != null) {
+                int rest = match(child.edge, zone, end);
+                end -= child.edge.length() - rest;
+
+                // The zone may end inside the edge, the names then start below it
+                if (rest > 0 && end > 0)
+                    child = null;
+                else
+                    name = child.name(name);
+            }
+
+            node = child;
+        }
+
+        return new ZoneIterator(node, name);
+    }
+
+    /**
+     * Returns the number of records, exact and wildcard, in the trie
+     *
+     * @return the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the trie is empty
+     *
+     * @return true if the trie has no records
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Put a node with the labels of the child's edge after rest between the parent and the child
+    private Node<V> splitEdge(Node<V> parent, Node<V> child, int rest) {
+        Node<V> middle = new Node<V>(child.edge.substring(rest + 1));
+        parent.replaceChild(middle);
+        child.edge = child.edge.substring(0, rest);
+        middle.addChild(child);
+        return middle;
+    }
+
+    /**
+     * Match the labels of an edge, from the right, with the labels of
+     * host before end. Returns the end of the part of the edge that does
+     * not match, 0 or less if the whole edge matches.
+     */
+    private static int match(String edge, String host, int end) {
+        int e = edge.length();
+
+        while (e > 0 && end > 0) {
+            int edgeStart = edge.lastIndexOf('.', e - 1) + 1;
+            int hostStart = host.lastIndexOf('.', end - 1) + 1;
+
+            if (e - edgeStart != end - hostStart || !edge.regionMatches(edgeStart, host, hostStart, e - edgeStart))
+                break;
+
+            e = edgeStart - 1;
+            end = hostStart - 1;
+        }
+
+        return e;
+    }
+
+    // Compare the label a[aStart, aEnd) with the label b[bStart, bEnd)
+    private static int compare(String a, int aStart, int aEnd, String b, int bStart, int bEnd) {
+        int length = Math.min(aEnd - aStart, bEnd - bStart);
+
+        for (int i = 0; i < length; i++) {
+            int c = a.charAt(aStart + i) - b.charAt(bStart + i);
+            if (c != 0)
+                return c;
+        }
+
+        return (aEnd - aStart) - (bEnd - bStart);
+    }
+
+    // The hash code of a label, spread like the one of Hash
+    private static int hash(String s, int start, int end) {
+        int h = 0;
+
+        for (int i = start; i < end; i++)
+            h = 31 * h + s.charAt(i);
+
+        return h ^ (h >>> 16);
+    }
+
+    static class Node<V> {
+        String edge;
+        V value, wildcard;
+        Node<V>[] children;
+        int childCount;
+
+        public Node(String edge) {
+            this.edge = edge;
+            value = wildcard = null;
+            children = null;
+            childCount = 0;
+        }
+
+        /**
+         * Find the child whose edge starts with the label host[start, end)
+         */
+        Node<V> child(String host, int start, int end) {
+            int i = indexOf(host, start, end);
+            return i < 0 ? null : children[i];
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void addChild(Node<V> child) {
+            if (children == null) {
+                children = (Node<V>[]) new Node[] { child };
+                childCount = 1;
+                return;
+            }
+
+            if (childCount < MAX_ARRAY) {
+                int i = -indexOf(child.edge, child.firstLabel(), child.edge.length()) - 1;
+                Node<V>[] grown = (Node<V>[]) new Node[childCount + 1];
+                System.arraycopy(children, 0, grown, 0, i);
+                grown[i] = child;
+                System.arraycopy(children, i, grown, i + 1, childCount - i);
+                children = grown;
+                childCount++;
+                return;
+            }
+
+            // A table at most half full, so probes stay short
+            if (2 * (childCount + 1) > children.length || childCount == MAX_ARRAY) {
+                Node<V>[] old = children;
+                children = (Node<V>[]) new Node[Math.max(4 * MAX_ARRAY, 2 * children.length)];
+                for (Node<V> node : old)
+                    if (node != null)
+                        children[-indexOf(node.edge, node.firstLabel(), node.edge.length(), true) - 1] = node;
+            }
+
+            children[-indexOf(child.edge, child.firstLabel(), child.edge.length(), true) - 1] = child;
+            childCount++;
+        }
+
+        /**
+         * Replace the child whose edge starts with the same label
+         */
+        void replaceChild(Node<V> child) {
+            children[indexOf(child.edge, child.firstLabel(), child.edge.length())] = child;
+        }
+
+        /**
+         * The full name of this node, below a parent with the given name
+         */
+        String name(String parent) {
+            return parent.isEmpty() ? edge : edge + "." + parent;
+        }
+
+        // The start of the label of the edge that is closest to the root
+        int firstLabel() {
+            return edge.lastIndexOf('.') + 1;
+        }
+
+        private int indexOf(String host, int start, int end) {
+            return indexOf(host, start, end, childCount > MAX_ARRAY);
+        }
+
+        /**
+         * The index of the child whose edge starts with the label host[start, end),
+         * or -(i + 1) if there is none and i is where it would go
+         */
+        private int indexOf(String host, int start, int end, boolean table) {
+            if (children == null)
+                return -1;
+
+            if (table) {
+                int mask = children.length - 1;
+                for (int i = hash(host, start, end) & mask; ; i = (i + 1) & mask) {
+                    Node<V> child = children[i];
+                    if (child == null)
+                        return -(i + 1);
+                    if (compare(child.edge, child.firstLabel(), child.edge.length(), host, start, end) == 0)
+                        return i;
+                }
+            }
+
+            // Binary search of the sorted children
+            int low = 0, high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                Node<V> child = children[mid];
+                int c = compare(child.edge, child.firstLabel(), child.edge.length(), host, start, end);
+
+                if (c < 0)
+                    low = mid + 1;
+                else if (c > 0)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * A depth first walk below a node, using an explicit stack of the nodes
+     * still to visit and their full names.
+     */
+    class ZoneIterator implements Iterator<String> {
+        Stack<Node<V>> nodes;
+        Stack<String> names;
+        String next;
+        String pendingWildcard;
+
+        public ZoneIterator(Node<V> node, String zone) {
+            nodes = new Stack<Node<V>>();
+            names = new Stack<String>();
+
+            if (node != null) {
+                nodes.push(node);
+                names.push(zone);
+            }
+
+            advance();
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public String next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            String tmp = next;
+            advance();
+            return tmp;
+        }
+
+        private void advance() {
+            next = null;
+
+            if (pendingWildcard != null) {
+                next = pendingWildcard;
+                pendingWildcard = null;
+                return;
+            }
+
+            while (next == null && !nodes.isEmpty()) {
+                Node<V> node = nodes.pop();
+                String name = names.pop();
+
+                if (node.children != null)
+                    for (Node<V> child : node.children)
+                        if (child != null) {
+                            nodes.push(child);
+                            names.push(child.name(name));
+                        }
+
+                String wildcard = node.wildcard == null ? null : (name.isEmpty() ? "*" : "*." + name);
+
+                if (node.value != null) {
+                    next = name;
+                    pendingWildcard = wildcard;
+                } else
+                    next = wildcard;
+            }
+        }
+    }
+}
@@ -7,6 +7,9 @@ package dns_resolver;
  * <p>
  * Your IPAddress class should accept a string of dotted-decimal IPAddresses in the constructor
  * and separate them into the components.
+ * <p>
+ * The four components are packed into a single int, with the network in the high byte and
+ * the host in the low byte. The dotted-decimal string is only built when it is asked for.
  *
  * @author Khaled Elsayed
  * CS 310 - Edwards
@@ -15,10 +18,7 @@ package dns_resolver;
 
 public class IPAddress implements Comparable<IPAddress> {
 
-    int network;
-    int subnet;
-    int subnet2;
-    int host;
+    int address;
     String ip;
 
     /**
@@ -27,22 +27,109 @@ public class IPAddress implements Comparable<IPAddress> {
      * @param ip the dotted-decimal IP address
      */
     public IPAddress(String ip) {
-        String data[] = ip.split("\\.");
+        address = parse(ip, 0, ip.length());
+    }
+
+    /**
+     * The constructor for an IPAddress that is already packed into an int
+     *
+     * @param address the network, subnets and host, one byte each
+     */
+    public IPAddress(int address) {
+        this.address = address;
+    }
+
+    /**
+     * Parse a dotted-decimal IP address without creating any objects. The
+     * address must be exactly four components of one to three digits, each
+     * at most 255, with nothing around them, not even spaces. Leading zeros
+     * are allowed and read as decimal, like the address files have always
+     * been read, so 010.0.0.1 is 10.0.0.1 and not 8.0.0.1 as C's inet_aton
+     * would read it.
+     *
+     * @param text  the characters holding the address
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @return the address packed into an int
+     * @throws NumberFormatException if the text is not a dotted-decimal IP address
+     */
+    public static int parse(CharSequence text, int start, int end) {
+        int address = 0, part = 0, digits = 0, parts = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+
+            if (c >= '0' && c <= '9' && digits < 3) {
+                part = part * 10 + (c - '0');
+                digits++;
+            } else if (c == '.' && digits > 0 && parts < 3) {
+                if (part > 255)
+                    break;
+                address = address << 8 | part;
+                part = digits = 0;
+                parts++;
+            } else {
+                digits = 0;
+                break;
+            }
+        }
+
+        if (parts != 3 || digits == 0 || part > 255)
+            throw new NumberFormatException("Not an IP address: " + text.subSequence(start, end));
+
+        return address << 8 | part;
+    }
+
+    /**
+     * @return the address packed into an int
+     */
+    public int toInt() {
+        return address;
+    }
+
+    /**
+     * @return the network, the first component
+     */
+    public int getNetwork() {
+        return address >>> 24;
+    }
 
-        this.ip = ip;
-        network = Integer.parseInt(data[0]);
-        subnet = Integer.parseInt(data[1]);
-        subnet2 = Integer.parseInt(data[2]);
-        host = Integer.parseInt(data[3]);
+    /**
+     * @return the subnet, the second component
+     */
+    public int getSubnet() {
+        return address >>> 16 & 0xFF;
     }
 
+    /**
+     * @return the second subnet, the third component
+     */
+    public int getSubnet2() {
+        return address >>> 8 & 0xFF;
+    }
 
     /**
+     * @return the host, the last component
+     */
+    public int getHost() {
+        return address & 0xFF;
+    }
+
+    /**
+     * The bits of the packed address are mixed, so that addresses that
+     * differ only in the host or subnet still land in different buckets.
+     *
      * @return hash code of the IP Address components
      */
     @Override
     public int hashCode() {
-        return network + subnet + subnet2 + host;
+        int h = address;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
     }
 
     /**
@@ -51,8 +138,8 @@ public class IPAddress implements Comparable<IPAddress> {
      */
     @Override
     public boolean equals(Object obj) {
-        if (obj.toString().equals(this.toString()))
-            return true;
+        if (obj instanceof IPAddress)
+            return ((IPAddress) obj).address == address;
 
         return false;
     }
@@ -62,11 +149,20 @@ public class IPAddress implements Comparable<IPAddress> {
      */
     @Override
     public String toString() {
-        return network + "." + subnet + "." + subnet2 + "." + host;
+        if (ip == null)
+            ip = getNetwork() + "." + getSubnet() + "." + getSubnet2() + "." + getHost();
+
+        return ip;
     }
 
+    /**
+     * Addresses are ordered by their numeric value, so 9.0.0.1 comes before 10.0.0.1
+     *
+     * @param obj the IPAddress to compare to
+     * @return a negative number, zero or a positive number if this address is smaller, equal or larger
+     */
     @Override
     public int compareTo(IPAddress obj) {
-        return this.ip.compareTo(obj.ip);
+        return Integer.compareUnsigned(address, obj.address);
     }
 }
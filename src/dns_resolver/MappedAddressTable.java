@@ -0,0 +1,723 @@
+package dns_resolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import interfaces.HashI;
+
+/**
+ * The MappedAddressTable is a URL to IPAddress dictionary that lives in a memory-mapped file
+ * instead of on the Java heap. Lookups read the file directly and the table is still there
+ * after a restart, so the addresses only have to be loaded once.
+ * <p>
+ * The file starts with a header, followed by an open addressing (linear probing) table of
+ * fixed size slots and a heap with the bytes of the URLs. Every slot holds the hash code of
+ * the URL, the length of its bytes, the IP address packed into an int and where the bytes
+ * are in the key heap:
+ * <pre>
+ * header: magic, version, capacity, count, deleted, unused, heapEnd   (6 ints, 1 long)
+ * slot:   hash, keyLength, address, unused, keyOffset                 (4 ints, 1 long)
+ * </pre>
+ * A keyLength of 0 marks an empty slot and -1 a removed one, so the empty URL can not be
+ * added.
+ * <p>
+ * All positions in the file are longs. A single MappedByteBuffer can not be larger than
+ * 2 GiB, so the file is mapped in chunks of 1 GiB. Every int and long in the file is
+ * aligned to its size, so it never crosses from one chunk into the next. The table can
+ * have up to 2^30 slots.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class MappedAddressTable implements HashI<URL, IPAddress>, Closeable {
+
+    private static final int MAGIC = 0x444E5331; // "DNS1"
+    private static final int VERSION = 2;
+    private static final int HEADER = 32;
+    private static final int SLOT = 24;
+    private static final int DELETED = -1;
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private final Path path;
+    private Mapping buffer;
+    private int capacity, count, deleted;
+    private long heapEnd, heapCapacity;
+    private double maxLoadFactor;
+
+    /**
+     * Opens the table stored in the file, or creates a new one with
+     * room for 65536 slots if the file does not exist.
+     *
+     * @param path the file of the table
+     * @throws IOException if the file can not be mapped or is not an address table
+     */
+    public MappedAddressTable(String path) throws IOException {
+        this(path, 1 << 16);
+    }
+
+    /**
+     * Opens the table stored in the file, or creates a new one if the
+     * file does not exist.
+     *
+     * @param path the file of the table
+     * @param size the number of slots of a new table, rounded up to a power of two
+     * @throws IOException if the file can not be mapped or is not an address table
+     */
+    public MappedAddressTable(String path, int size) throws IOException {
+        this.path = Paths.get(path);
+        maxLoadFactor = 0.75;
+
+        if (Files.exists(this.path) && Files.size(this.path) > 0)
+            open();
+        else {
+            capacity = tableSizeFor(size);
+            heapCapacity = (long) capacity * 32;
+            buffer = create(this.path, capacity, heapCapacity);
+        }
+    }
+
+    /**
+     * Adds the given key/value pair to the dictionary.  Returns
+     * false if the dictionary is full, or if the key is a duplicate.
+     * Returns true if addition succeeded.
+     *
+     * @param key   the key to add
+     * @param value the value associated with the key
+     * @return true if the key/value are added to the hash.
+     * @throws IllegalArgumentException if the key is the empty URL
+     * @throws IllegalStateException    if the table would need more than 2^30 slots
+     */
+    public boolean add(URL key, IPAddress value) {
+        String name = nameOf(key);
+        int hash = hash(name);
+
+        if (find(name, hash) >= 0)
+            return false;
+
+        // Doubled only if the live entries fill more than half of the allowed
+        // load, otherwise the removed slots are what filled it and it is
+        // rebuilt at the same size without them
+        if (count + deleted + 1 > maxLoadFactor * capacity)
+            resize(count + 1 > maxLoadFactor * capacity / 2 ? 2L * capacity : capacity);
+
+        insert(name.getBytes(StandardCharsets.UTF_8), hash, value.toInt());
+        return true;
+    }
+
+    /**
+     * Adds the first count key/value pairs of the arrays to the dictionary.
+     * The dictionary is sized once for the final number of entries, so
+     * no resize happens while the pairs are added. Duplicate keys are skipped.
+     *
+     * @param keys   the keys to add
+     * @param values the values, values[i] is associated with keys[i]
+     * @param count  the number of pairs to add
+     * @return the number of pairs that were added
+     * @throws IllegalArgumentException if one of the keys is the empty URL, then nothing is added
+     * @throws IllegalStateException    if the table would need more than 2^30 slots
+     */
+    public int addAll(URL[] keys, IPAddress[] values, int count) {
+        for (int i = 0; i < count; i++)
+            nameOf(keys[i]);
+
+        ensureCapacity((long) this.count + deleted + count);
+
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            String name = keys[i].toString();
+            int hash = hash(name);
+
+            if (find(name, hash) < 0) {
+                insert(name.getBytes(StandardCharsets.UTF_8), hash, values[i].toInt());
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Makes room for the expected number of entries, so that adding
+     * up to that many entries does not resize the dictionary.
+     *
+     * @param expected the known or estimated number of entries
+     * @throws IllegalStateException if the table would need more than 2^30 slots
+     */
+    public void ensureCapacity(int expected) {
+        ensureCapacity((long) expected);
+    }
+
+    private void ensureCapacity(long expected) {
+        if (expected > maxLoadFactor * capacity)
+            resize((long) (expected / maxLoadFactor) + 1);
+    }
+
+    /**
+     * Deletes the key/value pair identified by the key parameter.
+     * Returns true if the key/value pair was found and removed,
+     * otherwise returns false. The bytes of the key stay in the
+     * key heap until the next resize.
+     *
+     * @param key the key to remove
+     * @return true if key was removed
+     */
+    public boolean remove(URL key) {
+        int slot = find(key);
+
+        if (slot < 0)
+            return false;
+
+        buffer.putInt(slotAt(slot) + 4, DELETED);
+        count--;
+        deleted++;
+        writeHeader();
+
+        return true;
+    }
+
+    /**
+     * Change the value associated with an existing key.
+     *
+     * @param key   The key to change
+     * @param value the new value
+     * @return true if value changed
+     */
+    public boolean changeValue(URL key, IPAddress value) {
+        int slot = find(key);
+
+        if (slot < 0)
+            return false;
+
+        buffer.putInt(slotAt(slot) + 8, value.toInt());
+        return true;
+    }
+
+    /**
+     * Test whether the hash has the entry associated with the key
+     *
+     * @param key the key to look for
+     * @return whether it is there.
+     */
+    public boolean contains(URL key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the parameter key.
+     * Returns null if the key is not found or the dictionary is empty.
+     *
+     * @param key the key to find the value for
+     * @return the value
+     */
+    public IPAddress getValue(URL key) {
+        int slot = find(key);
+
+        if (slot < 0)
+            return null;
+
+        return new IPAddress(buffer.getInt(slotAt(slot) + 8));
+    }
+
+    /**
+     * Returns the number of key/value pairs currently stored in the dictionary
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns true if the dictionary is empty
+     *
+     * @return whether the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Make the dictionary empty
+     */
+    public void makeEmpty() {
+        for (long at = HEADER; at < slotAt(capacity); at += 8)
+            buffer.putLong(at, 0L);
+
+        count = deleted = 0;
+        heapEnd = 0;
+        writeHeader();
+    }
+
+    /**
+     * Returns the current load factor of the dictionary (lambda)
+     *
+     * @return the loadFactor
+     */
+    public double loadFactor() {
+        return (double) count / capacity;
+    }
+
+    /**
+     * Get the maximum load factor (at which point we need to resize)
+     *
+     * @return the maximum load factor of the hash
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Set the maximum load factor (at which point we need to resize).
+     * Open addressing needs at least one empty slot, so the load factor
+     * must be below 1.
+     *
+     * @param loadfactor the maximum load factor
+     */
+    public void setMaxLoadFActor(double loadfactor) {
+        if (loadfactor <= 0 || loadfactor >= 1)
+            throw new IllegalArgumentException();
+
+        maxLoadFactor = loadfactor;
+    }
+
+    /**
+     * Resizes the dictionary. The table is copied to a new file, without the
+     * removed entries and their key bytes, which then replaces the old file.
+     * If the copy fails the table is left as it was.
+     *
+     * @param newSize the number of slots of the new dictionary
+     * @throws IllegalStateException if the table would need more than 2^30 slots
+     */
+    public void resize(int newSize) {
+        resize((long) newSize);
+    }
+
+    /**
+     * Lookups only read the mapped file, so there is nothing to prepare
+     */
+    public void prepareForReaders() {
+    }
+
+    private void resize(long newSize) {
+        int slots = tableSizeFor(Math.max(newSize, (long) (count / maxLoadFactor) + 1));
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        // The new heap only needs room for the keys that are still in the table
+        long liveBytes = 0;
+        for (int slot = 0; slot < capacity; slot++)
+            liveBytes += Math.max(buffer.getInt(slotAt(slot) + 4), 0);
+        long heapBytes = Math.max(2 * liveBytes, 1024);
+
+        Mapping built = null;
+        try {
+            built = create(tmp, slots, heapBytes);
+            long end = 0;
+
+            for (int slot = 0; slot < capacity; slot++) {
+                long at = slotAt(slot);
+                int length = buffer.getInt(at + 4);
+
+                if (length > 0) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(heapAt(buffer.getLong(at + 16), capacity), bytes);
+
+                    int hash = buffer.getInt(at);
+                    int to = hash & (slots - 1);
+                    while (built.getInt(slotAt(to) + 4) != 0)
+                        to = (to + 1) & (slots - 1);
+
+                    writeEntry(built, slots, to, end, bytes, hash, buffer.getInt(at + 8));
+                    end += length;
+                }
+            }
+
+            writeHeader(built, slots, count, 0, end);
+            built.force();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // Only now the table switches to the new file
+            Mapping old = buffer;
+            buffer = built;
+            built = null;
+            capacity = slots;
+            deleted = 0;
+            heapEnd = end;
+            heapCapacity = heapBytes;
+            old.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (built != null)
+                discard(built, tmp);
+        }
+    }
+
+    /**
+     * Close and delete a new table file that was not used
+     */
+    private static void discard(Mapping built, Path tmp) {
+        try {
+            built.close();
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            // The table is still the old file, the temporary file is overwritten by the next resize
+        }
+    }
+
+    /**
+     * Returns an Iterator of the keys in the dictionary. The URLs are
+     * read from the key heap as the iterator reaches them.
+     */
+    public Iterator<URL> iterator() {
+        return new IteratorHelper();
+    }
+
+    /**
+     * Write the table to the disk
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Write the table to the disk and close the file
+     *
+     * @throws IOException if the file can not be closed
+     */
+    public void close() throws IOException {
+        buffer.close();
+    }
+
+    /**
+     * Returns the text of a key that is added. A keyLength of 0 marks an
+     * empty slot, so the empty URL can not be stored.
+     *
+     * @param key the key to add
+     * @return the text of the key
+     */
+    private static String nameOf(URL key) {
+        String name = key.toString();
+
+        if (name.isEmpty())
+            throw new IllegalArgumentException("The empty URL can not be added");
+
+        return name;
+    }
+
+    private int find(URL key) {
+        String name = key.toString();
+        return find(name, hash(name));
+    }
+
+    /**
+     * Private method to find the slot of a key. The key is compared with
+     * the bytes in the key heap without encoding it first.
+     *
+     * @param name the text of the key
+     * @param hash the hash code of the key
+     * @return the slot of the key or -1 if it is not in the table
+     */
+    private int find(String name, int hash) {
+        int mask = capacity - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long at = slotAt(slot);
+            int length = buffer.getInt(at + 4);
+
+            if (length == 0)
+                return -1;
+            if (length > 0 && buffer.getInt(at) == hash && keyEquals(name, buffer.getLong(at + 16), length))
+                return slot;
+        }
+    }
+
+    /**
+     * Private method to place a key that is known not to be in the table.
+     * Removed slots are reused.
+     */
+    private void insert(byte[] bytes, int hash, int address) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+
+        while (buffer.getInt(slotAt(slot) + 4) > 0)
+            slot = (slot + 1) & mask;
+
+        if (buffer.getInt(slotAt(slot) + 4) == DELETED)
+            deleted--;
+
+        if (heapEnd + bytes.length > heapCapacity)
+            growHeap(Math.max(heapCapacity * 2, heapEnd + bytes.length));
+
+        writeEntry(buffer, capacity, slot, heapEnd, bytes, hash, address);
+
+        heapEnd += bytes.length;
+        count++;
+        writeHeader();
+    }
+
+    /**
+     * Compare the key with its UTF-8 bytes in the key heap. Host names
+     * are ASCII, where every char is one byte; other keys are encoded.
+     */
+    private boolean keyEquals(String name, long offset, int length) {
+        long at = heapAt(offset, capacity);
+
+        if (name.length() != length)
+            return !isAscii(name) && Arrays.equals(name.getBytes(StandardCharsets.UTF_8), bytesAt(at, length));
+
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80)
+                return Arrays.equals(name.getBytes(StandardCharsets.UTF_8), bytesAt(at, length));
+            if (buffer.get(at + i) != c)
+                return false;
+        }
+
+        return true;
+    }
+
+    private byte[] bytesAt(long at, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return bytes;
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++)
+            if (name.charAt(i) >= 0x80)
+                return false;
+        return true;
+    }
+
+    /**
+     * Write an entry to a slot and its key bytes to the key heap at the offset
+     */
+    private static void writeEntry(Mapping to, int slots, int slot, long offset, byte[] bytes, int hash, int address) {
+        to.put(heapAt(offset, slots), bytes);
+
+        long at = slotAt(slot);
+        to.putInt(at, hash);
+        to.putInt(at + 4, bytes.length);
+        to.putInt(at + 8, address);
+        to.putLong(at + 16, offset);
+    }
+
+    /**
+     * Create a new empty table file and map it. The fields of the table are
+     * not changed, the caller switches to the new file when it is ready.
+     */
+    private static Mapping create(Path file, int slots, long heapBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // A new file is filled with zeros, which marks every slot as empty
+        Mapping mapping = new Mapping(channel, slotAt(slots) + heapBytes);
+        mapping.putInt(0, MAGIC);
+        mapping.putInt(4, VERSION);
+        writeHeader(mapping, slots, 0, 0, 0);
+        return mapping;
+    }
+
+    /**
+     * Map an existing table file and read its header
+     */
+    private void open() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() < HEADER) {
+            channel.close();
+            throw new IOException(path + " is not an address table");
+        }
+
+        buffer = new Mapping(channel, channel.size());
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            buffer.close();
+            throw new IOException(path + " is not an address table");
+        }
+
+        capacity = buffer.getInt(8);
+        count = buffer.getInt(12);
+        deleted = buffer.getInt(16);
+        heapEnd = buffer.getLong(24);
+        heapCapacity = channel.size() - slotAt(capacity);
+    }
+
+    /**
+     * Map a larger part of the file for the key heap, which also grows the file
+     */
+    private void growHeap(long heapBytes) {
+        try {
+            heapCapacity = heapBytes;
+            buffer.map(slotAt(capacity) + heapCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader() {
+        writeHeader(buffer, capacity, count, deleted, heapEnd);
+    }
+
+    private static void writeHeader(Mapping to, int capacity, int count, int deleted, long heapEnd) {
+        to.putInt(8, capacity);
+        to.putInt(12, count);
+        to.putInt(16, deleted);
+        to.putLong(24, heapEnd);
+    }
+
+    private static long slotAt(int slot) {
+        return HEADER + (long) slot * SLOT;
+    }
+
+    // The key heap starts right after the last slot
+    private static long heapAt(long offset, int capacity) {
+        return slotAt(capacity) + offset;
+    }
+
+    /**
+     * The hash code of the URL's text. String.hashCode is the same in
+     * every run, so the slots are still valid after a restart.
+     */
+    private static int hash(String name) {
+        int h = name.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static int tableSizeFor(long size) {
+        if (size > MAX_SLOTS)
+            throw new IllegalStateException("An address table can not have more than " + MAX_SLOTS + " slots");
+
+        int n = 16;
+        while (n < size)
+            n <<= 1;
+        return n;
+    }
+
+    /**
+     * A file mapped in chunks of 1 GiB, addressed with long positions
+     */
+    static class Mapping implements Closeable {
+        private static final int CHUNK_BITS = 30;
+        private static final long CHUNK = 1L << CHUNK_BITS;
+
+        private final FileChannel channel;
+        private MappedByteBuffer[] chunks;
+
+        public Mapping(FileChannel channel, long size) throws IOException {
+            this.channel = channel;
+            chunks = new MappedByteBuffer[0];
+            map(size);
+        }
+
+        /**
+         * Map the file up to the size, growing the file if it is shorter.
+         * Only the last chunk and the new chunks are mapped again.
+         */
+        public void map(long size) throws IOException {
+            int n = (int) ((size + CHUNK - 1) >>> CHUNK_BITS);
+            MappedByteBuffer[] mapped = Arrays.copyOf(chunks, n);
+
+            for (int i = Math.max(chunks.length - 1, 0); i < n; i++) {
+                long start = (long) i << CHUNK_BITS;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(CHUNK, size - start));
+            }
+
+            chunks = mapped;
+        }
+
+        public int getInt(long at) {
+            return chunks[(int) (at >>> CHUNK_BITS)].getInt((int) (at & (CHUNK - 1)));
+        }
+
+        public void putInt(long at, int value) {
+            chunks[(int) (at >>> CHUNK_BITS)].putInt((int) (at & (CHUNK - 1)), value);
+        }
+
+        public long getLong(long at) {
+            return chunks[(int) (at >>> CHUNK_BITS)].getLong((int) (at & (CHUNK - 1)));
+        }
+
+        public void putLong(long at, long value) {
+            chunks[(int) (at >>> CHUNK_BITS)].putLong((int) (at & (CHUNK - 1)), value);
+        }
+
+        public byte get(long at) {
+            return chunks[(int) (at >>> CHUNK_BITS)].get((int) (at & (CHUNK - 1)));
+        }
+
+        // Keys are copied in pieces, they can cross from one chunk into the next
+        public void get(long at, byte[] bytes) {
+            for (int done = 0; done < bytes.length; ) {
+                int offset = (int) ((at + done) & (CHUNK - 1));
+                int length = (int) Math.min(bytes.length - done, CHUNK - offset);
+                chunks[(int) ((at + done) >>> CHUNK_BITS)].get(offset, bytes, done, length);
+                done += length;
+            }
+        }
+
+        public void put(long at, byte[] bytes) {
+            for (int done = 0; done < bytes.length; ) {
+                int offset = (int) ((at + done) & (CHUNK - 1));
+                int length = (int) Math.min(bytes.length - done, CHUNK - offset);
+                chunks[(int) ((at + done) >>> CHUNK_BITS)].put(offset, bytes, done, length);
+                done += length;
+            }
+        }
+
+        public void force() {
+            for (MappedByteBuffer chunk : chunks)
+                chunk.force();
+        }
+
+        public void close() throws IOException {
+            force();
+            channel.close();
+        }
+    }
+
+    class IteratorHelper implements Iterator<URL> {
+        int slot;
+
+        public IteratorHelper() {
+            slot = advance(0);
+        }
+
+        public boolean hasNext() {
+            return slot < capacity;
+        }
+
+        public URL next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            long at = slotAt(slot);
+            byte[] bytes = new byte[buffer.getInt(at + 4)];
+            buffer.get(heapAt(buffer.getLong(at + 16), capacity), bytes);
+
+            slot = advance(slot + 1);
+            return new URL(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        private int advance(int from) {
+            while (from < capacity && buffer.getInt(slotAt(from) + 4) <= 0)
+                from++;
+            return from;
+        }
+    }
+}
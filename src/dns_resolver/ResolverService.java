@@ -0,0 +1,172 @@
+package dns_resolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import interfaces.HashI;
+
+/**
+ * The ResolverService resolves URLs in batches instead of one at a time from the console.
+ * A batch is split into chunks that are looked up in parallel against the shared table.
+ * The streaming mode reads newline-delimited URLs and writes one line per URL with its IP
+ * address, or "unknown" if the URL is not in the table.
+ * <p>
+ * The lookups run on virtual threads when the JVM has them, and on a pool with one thread
+ * per core otherwise. The table is only read, so it must not be changed while a batch runs
+ * unless it is a ConcurrentHash. An incremental Hash that is still resizing also moves
+ * entries on lookups, so the table is prepared for readers before a batch is handed to
+ * the threads.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ResolverService implements Closeable {
+
+    // Number of URLs looked up by one task, and read at once in streaming mode
+    private static final int CHUNK = 1024;
+    private static final int BATCH = 64 * CHUNK;
+
+    private final HashI<URL, IPAddress> url2ip;
+    private final ExecutorService executor;
+
+    /**
+     * ResolverService constructor
+     *
+     * @param url2ip the table to resolve URLs against
+     */
+    public ResolverService(HashI<URL, IPAddress> url2ip) {
+        this.url2ip = url2ip;
+        executor = newExecutor();
+    }
+
+    /**
+     * Resolve a batch of URLs
+     *
+     * @param names the URLs to resolve
+     * @return the IP addresses, with null for every unknown URL
+     */
+    public IPAddress[] resolve(URL[] names) {
+        return resolve(names, names.length);
+    }
+
+    /**
+     * Resolve the first count URLs of a batch
+     *
+     * @param names the URLs to resolve
+     * @param count the number of URLs to resolve
+     * @return the IP addresses, with null for every unknown URL
+     */
+    public IPAddress[] resolve(URL[] names, int count) {
+        IPAddress[] addresses = new IPAddress[count];
+
+        // Small batches are not worth handing to other threads
+        if (count <= CHUNK) {
+            lookup(names, addresses, 0, count);
+            return addresses;
+        }
+
+        // Lookups on a resizing Hash move buckets, which is not safe on several threads
+        url2ip.prepareForReaders();
+
+        List<Future<?>> tasks = new ArrayList<Future<?>>((count + CHUNK - 1) / CHUNK);
+        for (int start = 0; start < count; start += CHUNK) {
+            int from = start;
+            int end = Math.min(start + CHUNK, count);
+            tasks.add(executor.submit(() -> lookup(names, addresses, from, end)));
+        }
+
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A lookup failed", e.getCause());
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Resolve every line of the input and write "URL address" lines to the output.
+     * The input is read and resolved in batches, and the output is written in bulk.
+     * Surrounding whitespace is trimmed and blank lines are skipped. The streams
+     * are not closed.
+     *
+     * @param in  the newline-delimited URLs
+     * @param out where the results are written
+     * @return the number of URLs resolved
+     * @throws IOException if the input can not be read or the output can not be written
+     */
+    public long resolveStream(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in, 1 << 16);
+        BufferedWriter writer = new BufferedWriter(out, 1 << 16);
+        URL[] names = new URL[BATCH];
+        long total = 0;
+
+        while (true) {
+            int count = 0;
+            String line;
+            while (count < BATCH && (line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty())
+                    names[count++] = new URL(line);
+            }
+
+            if (count == 0)
+                break;
+
+            IPAddress[] addresses = resolve(names, count);
+            for (int i = 0; i < count; i++) {
+                writer.write(names[i].toString());
+                writer.write(' ');
+                writer.write(addresses[i] == null ? "unknown" : addresses[i].toString());
+                writer.newLine();
+            }
+
+            total += count;
+        }
+
+        writer.flush();
+        return total;
+    }
+
+    /**
+     * Stop the lookup threads
+     */
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void lookup(URL[] names, IPAddress[] addresses, int start, int end) {
+        for (int i = start; i < end; i++)
+            addresses[i] = url2ip.getValue(names[i]);
+    }
+
+    /**
+     * Use a virtual thread per task when the JVM supports it (Java 21 and
+     * later), otherwise a fixed pool of daemon threads, one per core.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "resolver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
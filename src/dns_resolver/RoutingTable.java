@@ -0,0 +1,248 @@
+package dns_resolver;
+
+/**
+ * The RoutingTable maps CIDR blocks, such as 130.191.0.0/16, to values and finds the most
+ * specific block that contains an IP address (longest prefix match).
+ * <p>
+ * The first 16 bits of an address index two arrays directly. Blocks of 16 bits or less are
+ * expanded into the first array, every slot holds the value of the longest such block that
+ * covers it. Longer blocks are kept in a path-compressed binary trie per slot. A trie node
+ * stores the whole prefix it stands for, so chains of nodes with a single child are skipped
+ * in one step. Nodes without a value only join two subtrees. A lookup is one array read
+ * plus a short walk of a small trie.
+ *
+ * @param <V> The value stored for every block
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class RoutingTable<V> {
+
+    private static final int SLOTS = 1 << 16;
+
+    private V[] shortValues;
+    private byte[] shortLengths;
+    private long[] shortBlocks;
+    private Node<V>[] tries;
+    private int size;
+
+    /**
+     * RoutingTable constructor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RoutingTable() {
+        shortValues = (V[]) new Object[SLOTS];
+        shortLengths = new byte[SLOTS];
+        // One bit for every block of 16 bits or less, to know which ones were added
+        shortBlocks = new long[(2 * SLOTS) / 64];
+        tries = (Node<V>[]) new Node[SLOTS];
+        size = 0;
+    }
+
+    /**
+     * Add a block in CIDR notation, for example 130.191.0.0/16. A block
+     * that is already in the table gets the new value.
+     *
+     * @param cidr  the block
+     * @param value the value for the block
+     * @throws NumberFormatException if the block is not in CIDR notation
+     */
+    public void add(String cidr, V value) {
+        int slash = cidr.indexOf('/');
+        if (slash < 0)
+            throw new NumberFormatException("Not a CIDR block: " + cidr);
+
+        add(IPAddress.parse(cidr, 0, slash), Integer.parseInt(cidr.substring(slash + 1)), value);
+    }
+
+    /**
+     * Add a block. A block that is already in the table gets the new value.
+     *
+     * @param network the address of the block
+     * @param length  the number of leading bits of the address that make up the block
+     * @param value   the value for the block
+     */
+    public void add(IPAddress network, int length, V value) {
+        add(network.toInt(), length, value);
+    }
+
+    /**
+     * Add a block. A block that is already in the table gets the new value.
+     *
+     * @param prefix the packed address of the block
+     * @param length the number of leading bits of the address that make up the block
+     * @param value  the value for the block
+     */
+    public void add(int prefix, int length, V value) {
+        if (length < 0 || length > 32)
+            throw new IllegalArgumentException("Prefix length must be between 0 and 32");
+        if (value == null)
+            throw new IllegalArgumentException("The value can not be null");
+
+        prefix &= mask(length);
+
+        if (length <= 16)
+            addShort(prefix, length, value);
+        else
+            tries[prefix >>> 16] = add(tries[prefix >>> 16], prefix, length, value);
+    }
+
+    /**
+     * Private method to expand a block of 16 bits or less into the slots it
+     * covers. A slot keeps its value if a longer block already covers it.
+     */
+    private void addShort(int prefix, int length, V value) {
+        int block = (1 << length) - 1 + (length == 0 ? 0 : prefix >>> (32 - length));
+
+        if ((shortBlocks[block >>> 6] & (1L << block)) == 0) {
+            shortBlocks[block >>> 6] |= 1L << block;
+            size++;
+        }
+
+        int first = prefix >>> 16;
+        int last = first + (1 << (16 - length));
+
+        // The lengths are stored plus one, so that 0 means no block
+        for (int i = first; i < last; i++)
+            if (shortLengths[i] <= length + 1) {
+                shortValues[i] = value;
+                shortLengths[i] = (byte) (length + 1);
+            }
+    }
+
+    /**
+     * Private method to add a block below a node
+     *
+     * @return the node that takes the place of node
+     */
+    private Node<V> add(Node<V> node, int prefix, int length, V value) {
+        if (node == null) {
+            size++;
+            return new Node<V>(prefix, length, value);
+        }
+
+        int common = Math.min(Integer.numberOfLeadingZeros(node.prefix ^ prefix), Math.min(node.length, length));
+
+        // The block is below this node
+        if (common == node.length) {
+            if (length == node.length) {
+                if (node.value == null)
+                    size++;
+                node.value = value;
+            } else if (bit(prefix, node.length) == 0)
+                node.zero = add(node.zero, prefix, length, value);
+            else
+                node.one = add(node.one, prefix, length, value);
+
+            return node;
+        }
+
+        // The block contains this node, or the two only share the first common bits
+        Node<V> parent;
+        if (common == length) {
+            parent = new Node<V>(prefix, length, value);
+        } else {
+            parent = new Node<V>(prefix & mask(common), common, null);
+            setChild(parent, new Node<V>(prefix, length, value));
+        }
+
+        setChild(parent, node);
+        size++;
+        return parent;
+    }
+
+    /**
+     * Find the value of the most specific block that contains the address
+     *
+     * @param address the address to look up
+     * @return the value of the longest matching block, or null if no block contains it
+     */
+    public V lookup(IPAddress address) {
+        return lookup(address.toInt());
+    }
+
+    /**
+     * Find the value of the most specific block that contains the address
+     *
+     * @param address the packed address to look up
+     * @return the value of the longest matching block, or null if no block contains it
+     */
+    public V lookup(int address) {
+        Node<V> node = tries[address >>> 16];
+        V best = shortValues[address >>> 16];
+
+        while (node != null && ((address ^ node.prefix) & mask(node.length)) == 0) {
+            if (node.value != null)
+                best = node.value;
+            if (node.length == 32)
+                break;
+
+            node = bit(address, node.length) == 0 ? node.zero : node.one;
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the number of blocks in the table
+     *
+     * @return the number of blocks
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test whether the table is empty
+     *
+     * @return true if the table has no blocks
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every block from the table
+     */
+    public void makeEmpty() {
+        for (int i = 0; i < SLOTS; i++) {
+            shortValues[i] = null;
+            shortLengths[i] = 0;
+            tries[i] = null;
+        }
+
+        for (int i = 0; i < shortBlocks.length; i++)
+            shortBlocks[i] = 0;
+
+        size = 0;
+    }
+
+    private void setChild(Node<V> parent, Node<V> child) {
+        if (bit(child.prefix, parent.length) == 0)
+            parent.zero = child;
+        else
+            parent.one = child;
+    }
+
+    // The leading length bits of an address
+    private static int mask(int length) {
+        return length == 0 ? 0 : -1 << (32 - length);
+    }
+
+    // Bit i of an address, counting from the most significant bit
+    private static int bit(int address, int i) {
+        return (address >>> (31 - i)) & 1;
+    }
+
+    static class Node<V> {
+        int prefix, length;
+        V value;
+        Node<V> zero, one;
+
+        public Node(int prefix, int length, V value) {
+            this.prefix = prefix;
+            this.length = length;
+            this.value = value;
+            zero = one = null;
+        }
+    }
+}
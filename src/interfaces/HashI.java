@@ -6,6 +6,12 @@ import java.util.Iterator;
 /**
  * The Hash interface that describes the methods that our hash will
  * implement.
+ * <p>
+ * A lookup is not always read only, a Hash in incremental mode moves part
+ * of its old table on every call. Unless an implementation says otherwise,
+ * a dictionary must not be used by several threads at once. After
+ * prepareForReaders, lookups may run on several threads as long as
+ * nothing is added or removed.
  */
 
 
@@ -29,6 +35,27 @@ public interface HashI<K, V> extends Iterable<K> {
 	 */
 	public boolean add(K key, V value);
 
+	/**
+	 * Adds the first count key/value pairs of the arrays to the dictionary.
+	 * The dictionary is sized once for the final number of entries, so
+	 * no resize happens while the pairs are added. A key that is already
+	 * in the dictionary, or earlier in the arrays, is skipped and keeps
+	 * its first value.
+	 *  
+	 * @param keys the keys to add
+	 * @param values the values, values[i] is associated with keys[i]
+	 * @param count the number of pairs to add
+	 * @return the number of pairs that were added, without the skipped duplicates
+	 */
+	public int addAll(K[] keys, V[] values, int count);
+
+	/**
+	 * Makes room for the expected number of entries, so that adding
+	 * up to that many entries does not resize the dictionary.
+	 * @param expected the known or estimated number of entries
+	 */
+	public void ensureCapacity(int expected);
+
 
 	/**
 	 * Deletes the key/value pair identified by the key parameter. 
@@ -50,7 +77,8 @@ public interface HashI<K, V> extends Iterable<K> {
 	
 	
 	/**
-	 * Test whether the hash has the entry associated with the key
+	 * Test whether the hash has the entry associated with the key.
+	 * This may change the table, see getValue.
 	 * @param key the key to look for
 	 * @return whether it is there.
 	 */
@@ -59,6 +87,11 @@ public interface HashI<K, V> extends Iterable<K> {
 	/**
 	 * Returns the value associated with the parameter key. 
 	 * Returns null if the key is not found or the dictionary is empty. 
+	 * <p>
+	 * A lookup may change the table, a Hash in incremental mode moves old
+	 * buckets on every call. Before several threads look up keys at once,
+	 * call prepareForReaders, and add or remove nothing while they do.
+	 * Implementations whose lookups only read do nothing there.
 	 * @param key the key to find the value for
 	 * @return the value
 	 */
@@ -104,10 +137,16 @@ public interface HashI<K, V> extends Iterable<K> {
 	 * @param newSize the size of the new dictionary
 	 */
 	public void resize(int newSize);
+
+	/**
+	 * Makes lookups read only until the next add or remove, so the
+	 * dictionary can be read by several threads at once
+	 */
+	public void prepareForReaders();
 	
 	/**
 	 * Returns an Iterator of the keys in the dictionary, in ascending 
-	 * sorted order 
+	 * sorted order. Like a lookup, creating it may change the table.
 	 */
 	public Iterator<K> iterator();
 
@@ -18,6 +18,13 @@ public interface RedBlackI<K, V> extends Iterable<K> {
 	 */
 	public void add(K key, V value);
 
+	/**
+	 * Removes the key and its value from the RBTree.
+	 * @param key the key to remove
+	 * @return <code>true</code> if the key was found and removed
+	 */
+	public boolean remove(K key);
+
 	/**
 	 * Tests whether the RBTree contains the key
 	 * @param key the key to look for
@@ -51,6 +58,65 @@ public interface RedBlackI<K, V> extends Iterable<K> {
 	 * @return the height of the tree at the root node
 	 */
 	public int height();
+
+	/**
+	 * Returns the smallest key in the RBTree
+	 * @return the first key, or null if the tree is empty
+	 */
+	public K first();
+
+	/**
+	 * Returns the largest key in the RBTree
+	 * @return the last key, or null if the tree is empty
+	 */
+	public K last();
+
+	/**
+	 * Returns the largest key less than or equal to the given key
+	 * @param key the key to search for
+	 * @return the floor key, or null if there is none
+	 */
+	public K floor(K key);
+
+	/**
+	 * Returns the smallest key greater than or equal to the given key
+	 * @param key the key to search for
+	 * @return the ceiling key, or null if there is none
+	 */
+	public K ceiling(K key);
+
+	/**
+	 * An iterator for the keys from <code>from</code>, inclusive,
+	 * to <code>to</code>, exclusive, in order. The keys are found
+	 * as the iterator advances, the tree is not copied.
+	 * @param from the lowest key
+	 * @param to the key to stop before
+	 * @return an iterator over the keys in the range
+	 */
+	public Iterator<K> subMap(K from, K to);
+
+	/**
+	 * Returns the number of keys in the RBTree that are less than the key
+	 * @param key the key to rank, which does not have to be in the tree
+	 * @return the number of smaller keys
+	 */
+	public int rank(K key);
+
+	/**
+	 * Returns the key with the given rank, the smallest key has rank 0
+	 * @param index the rank of the key
+	 * @return the key
+	 * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+	 */
+	public K select(int index);
+
+	/**
+	 * Returns the number of keys from <code>lo</code> to <code>hi</code>, both inclusive
+	 * @param lo the lowest key
+	 * @param hi the highest key
+	 * @return the number of keys in the range
+	 */
+	public int countBetween(K lo, K hi);
 		
 	/**
 	 * An iterator for all the keys in the RBTree. This will
@@ -0,0 +1,77 @@
+package data_structures;
+
+import java.util.Random;
+
+/**
+ * Measures the memory used per node by the RedBlackTree and the ArrayRedBlackTree for the
+ * same keys, and the time of random lookups in both, best of several runs. The keys are
+ * shared by both trees, so only the nodes are counted. Run it with the classes of src on the
+ * class path, optionally with the number of keys, and with enough heap for both trees:
+ * <pre>
+ * java -Xmx2g -cp bin data_structures.ArrayRedBlackTreeBenchmark 5000000
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ArrayRedBlackTreeBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        Random random = new Random(9);
+
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+
+        long before = used();
+        RedBlackTree<Integer, Integer> objects = new RedBlackTree<Integer, Integer>();
+        for (Integer key : keys)
+            objects.add(key, key);
+        long objectBytes = used() - before;
+
+        before = used();
+        ArrayRedBlackTree<Integer, Integer> arrays = new ArrayRedBlackTree<Integer, Integer>(n);
+        for (Integer key : keys)
+            arrays.add(key, key);
+        long arrayBytes = used() - before;
+
+        System.out.printf("%d keys%n", n);
+        System.out.printf("memory   RedBlackTree %5.1f B/node   ArrayRedBlackTree %5.1f B/node%n",
+                (double) objectBytes / n, (double) arrayBytes / n);
+
+        Integer[] queries = new Integer[2000000];
+        for (int i = 0; i < queries.length; i++)
+            queries[i] = keys[random.nextInt(n)];
+
+        long objectTime = Long.MAX_VALUE, arrayTime = Long.MAX_VALUE, sum = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (Integer key : queries)
+                sum += objects.getValue(key);
+            long middle = System.nanoTime();
+            for (Integer key : queries)
+                sum += arrays.getValue(key);
+            long end = System.nanoTime();
+
+            objectTime = Math.min(objectTime, middle - start);
+            arrayTime = Math.min(arrayTime, end - middle);
+        }
+
+        System.out.printf("getValue RedBlackTree %5.0f ns       ArrayRedBlackTree %5.0f ns       (%d)%n",
+                (double) objectTime / queries.length, (double) arrayTime / queries.length, sum % 10);
+    }
+
+    private static long used() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,94 @@
+package data_structures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Checks the ArrayRedBlackTree against a TreeMap with random adds and removes, calling
+ * blackNodes after every change, and checks that its iterators fail when the tree changes.
+ * Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.ArrayRedBlackTreeTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ArrayRedBlackTreeTest {
+
+    public static void main(String[] args) {
+        // A small capacity, so the arrays grow, and removes so freed slots are used again
+        randomOperations(new Random(25), new ArrayRedBlackTree<Integer, Integer>(1), 2000, 200000);
+        randomOperations(new Random(251), new ArrayRedBlackTree<Integer, Integer>(), 50, 20000);
+        failFast();
+        System.out.println("ArrayRedBlackTreeTest passed");
+    }
+
+    private static void randomOperations(Random random, ArrayRedBlackTree<Integer, Integer> tree,
+                                         int keys, int operations) {
+        TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(keys);
+
+            if (random.nextInt(operations) > i / 2) {
+                tree.add(key, i);
+                map.putIfAbsent(key, i);
+            } else
+                check(tree.remove(key) == (map.remove(key) != null), "remove " + key);
+
+            tree.blackNodes();
+            check(tree.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 997 == 0)
+                RedBlackChecks.checkAgainst(tree, map, random, keys);
+        }
+
+        RedBlackChecks.checkAgainst(tree, map, random, keys);
+
+        // Emptied and filled again
+        for (Integer key : map.keySet())
+            check(tree.remove(key), "remove " + key);
+        check(tree.isEmpty() && tree.first() == null && !tree.iterator().hasNext(), "every key removed");
+        for (int i = 0; i < keys; i++)
+            tree.add(i, i);
+        tree.blackNodes();
+        check(tree.size() == keys && tree.select(keys - 1) == keys - 1, "filled again");
+    }
+
+    private static void failFast() {
+        ArrayRedBlackTree<Integer, Integer> tree = new ArrayRedBlackTree<Integer, Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.add(i, i);
+
+        for (int change = 0; change < 3; change++) {
+            Iterator<Integer> it = change == 2 ? tree.subMap(2, 8) : tree.iterator();
+            it.next();
+
+            if (change == 0)
+                tree.add(100, 100);
+            else
+                tree.remove(it.next());
+
+            try {
+                it.next();
+                throw new AssertionError("an iterator fails after the tree changes");
+            } catch (ConcurrentModificationException e) {
+                // expected
+            }
+        }
+
+        // Adding a key that is already there changes nothing
+        Iterator<Integer> it = tree.iterator();
+        it.next();
+        tree.add(5, 5);
+        it.next();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
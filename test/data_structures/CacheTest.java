@@ -0,0 +1,184 @@
+package data_structures;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the Cache against an access-ordered LinkedHashMap that evicts its eldest entry, which
+ * is an LRU cache the slow way, and checks expiry, the counters, and that a miss does not hold
+ * the lock while it reads the dictionary. Run it with the classes of
+ * src on the class path:
+ * <pre>
+ * java -cp bin data_structures.CacheTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class CacheTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        lru(new Random(15), 1000, 200000);
+        expiry();
+        invalidate();
+        largeCapacity();
+        missWithoutLock();
+        System.out.println("CacheTest passed");
+    }
+
+    private static void lru(Random random, int capacity, int lookups) {
+        Hash<Integer, Integer> table = new Hash<Integer, Integer>();
+        for (int i = 0; i < 20000; i++)
+            table.add(i, -i);
+
+        Cache<Integer, Integer> cache = new Cache<Integer, Integer>(table, capacity, 0);
+        Map<Integer, Integer> lru = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        long hits = 0, misses = 0, evictions = 0;
+        for (int i = 0; i < lookups; i++) {
+            // A skewed set of keys, most lookups go to a small hot set, some miss the table
+            int key = (int) Math.abs(random.nextGaussian() * 1500) - 500;
+
+            boolean hit = lru.containsKey(key);
+            Integer expected = hit ? lru.get(key) : table.getValue(key);
+            if (hit)
+                hits++;
+            else {
+                misses++;
+                if (expected != null) {
+                    if (lru.size() == capacity)
+                        evictions++;
+                    lru.put(key, expected);
+                }
+            }
+
+            check(same(cache.getValue(key), expected), "value of " + key);
+            check(cache.size() == lru.size(), "size after " + i + " lookups");
+        }
+
+        check(cache.getHits() == hits && cache.getMisses() == misses, "hits and misses");
+        check(cache.getEvictions() == evictions, "evictions");
+        check(cache.getExpirations() == 0, "nothing expires without a time to live");
+        check(Math.abs(cache.hitRate() - (double) hits / lookups) < 1e-12, "hit rate");
+
+        // The least recently used keys are gone, so looking them up again misses
+        long before = cache.getMisses();
+        for (Integer key : lru.keySet().toArray(new Integer[0]))
+            cache.getValue(key);
+        check(cache.getMisses() == before, "every key the LinkedHashMap kept is still cached");
+    }
+
+    private static void expiry() throws InterruptedException {
+        Hash<String, String> table = new Hash<String, String>();
+        table.add("a", "1");
+        table.add("b", "2");
+
+        Cache<String, String> cache = new Cache<String, String>(table, 10, 50);
+        cache.getValue("a");
+        cache.put("b", "cached", 0);
+        check("1".equals(cache.getValue("a")) && cache.getHits() == 1, "a fresh entry is a hit");
+
+        Thread.sleep(100);
+        check("1".equals(cache.getValue("a")), "an expired entry is loaded again");
+        check(cache.getExpirations() == 1 && cache.getMisses() == 2, "the expired entry counts as a miss");
+        check("cached".equals(cache.getValue("b")), "an entry put without a time to live does not expire");
+        check(cache.size() == 2, "the reloaded entry replaces the expired one");
+    }
+
+    private static void invalidate() {
+        Hash<String, String> table = new Hash<String, String>();
+        table.add("a", "1");
+
+        Cache<String, String> cache = new Cache<String, String>(table, 2, 0);
+        check("1".equals(cache.getValue("a")), "loaded from the table");
+        table.changeValue("a", "2");
+        check("1".equals(cache.getValue("a")), "the cache keeps the old value until it is invalidated");
+        cache.invalidate("a");
+        check("2".equals(cache.getValue("a")), "the new value after invalidate");
+
+        cache.makeEmpty();
+        check(cache.size() == 0 && cache.getValue("missing") == null, "makeEmpty");
+        check(cache.size() == 0, "a key missing from the table is not cached");
+    }
+
+    /**
+     * A capacity near Integer.MAX_VALUE must not overflow the size of the
+     * table, or allocate a table for all of it
+     */
+    private static void largeCapacity() {
+        Hash<Integer, Integer> table = new Hash<Integer, Integer>();
+        for (int i = 0; i < 1000; i++)
+            table.add(i, -i);
+
+        for (int capacity : new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE / 4 * 3 + 1 }) {
+            Cache<Integer, Integer> cache = new Cache<Integer, Integer>(table, capacity, 0);
+            for (int i = 0; i < 1000; i++)
+                check(cache.getValue(i) == -i, "value " + i + " with a capacity of " + capacity);
+            check(cache.size() == 1000, "nothing is evicted");
+        }
+    }
+
+    /**
+     * A miss that is stuck in the dictionary does not keep other threads
+     * from using the cache, for hits and for misses of their own
+     */
+    private static void missWithoutLock() throws InterruptedException {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ConcurrentHash<Integer, Integer> table = new ConcurrentHash<Integer, Integer>() {
+            public Integer getValue(Integer key) {
+                if (key == 0) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getValue(key);
+            }
+        };
+        for (int i = 0; i < 10; i++)
+            table.add(i, -i);
+
+        Cache<Integer, Integer> cache = new Cache<Integer, Integer>(table, 100, 0);
+        cache.getValue(1);
+
+        Thread slow = new Thread(() -> check(cache.getValue(0) == 0, "the slow miss"));
+        slow.start();
+        check(reading.await(10, TimeUnit.SECONDS), "the slow miss reached the dictionary");
+
+        // The slow miss is still reading, these would wait for it if it held the lock
+        CountDownLatch done = new CountDownLatch(1);
+        new Thread(() -> {
+            if (cache.getValue(1) == -1 && cache.getValue(2) == -2)
+                done.countDown();
+        }).start();
+        boolean finished = done.await(10, TimeUnit.SECONDS);
+
+        release.countDown();
+        check(finished, "a hit and a miss during the slow miss");
+        check(cache.getMisses() == 3 && cache.getHits() == 1, "the counters during the slow miss");
+        slow.join();
+        check(cache.size() == 3 && cache.getValue(0) == 0 && cache.getHits() == 2, "the slow miss was cached");
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,98 @@
+package data_structures;
+
+import java.util.Random;
+
+import interfaces.HashI;
+
+/**
+ * Measures the throughput of the ConcurrentHash with 1, 2, 4 and 8 threads, against a Hash
+ * behind one global lock as the baseline. Every thread runs the same mix of lookups with
+ * one write in ten, half adds and half removes, on a table filled with the keys first. Every
+ * case is run several times and the best run is reported. Run it with the classes of src on
+ * the class path, optionally with the number of keys, of operations per thread and of runs:
+ * <pre>
+ * java -cp bin data_structures.ConcurrentHashBenchmark 1000000 2000000 5
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ConcurrentHashBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Integer[] keys = new Integer[2 * n];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = i;
+
+        System.out.printf("%d keys, %d operations per thread, best of %d runs, %d cores%n",
+                n, operations, runs, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            double striped = Double.MAX_VALUE, locked = Double.MAX_VALUE;
+
+            for (int run = 0; run < runs; run++) {
+                ConcurrentHash<Integer, Integer> concurrent = new ConcurrentHash<Integer, Integer>();
+                concurrent.addAll(keys, keys, n);
+                striped = Math.min(striped, time(concurrent, null, keys, threads, operations));
+
+                Hash<Integer, Integer> hash = new Hash<Integer, Integer>();
+                hash.addAll(keys, keys, n);
+                locked = Math.min(locked, time(hash, hash, keys, threads, operations));
+            }
+
+            long total = (long) threads * operations;
+            System.out.printf("%d threads  ConcurrentHash %7.1f ms (%6.2f M/s)   locked Hash %7.1f ms (%6.2f M/s)%n",
+                    threads, striped, total / striped / 1000, locked, total / locked / 1000);
+        }
+    }
+
+    /**
+     * Run the operations on every thread at once
+     *
+     * @param lock the lock taken for every operation, or null for none
+     * @return the time until the last thread finished, in ms
+     */
+    private static double time(HashI<Integer, Integer> hash, Object lock, Integer[] keys, int threads,
+                               int operations) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < operations; i++) {
+                    Integer key = keys[random.nextInt(keys.length)];
+                    int choice = random.nextInt(20);
+                    if (lock == null)
+                        operate(hash, key, choice);
+                    else
+                        synchronized (lock) {
+                            operate(hash, key, choice);
+                        }
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    /**
+     * An add, a remove or a lookup. Hash.add does not check for
+     * duplicates, so a key is only added if it is not there.
+     */
+    private static void operate(HashI<Integer, Integer> hash, Integer key, int choice) {
+        if (choice == 0) {
+            if (!hash.contains(key))
+                hash.add(key, key);
+        } else if (choice == 1)
+            hash.remove(key);
+        else
+            hash.contains(key);
+    }
+}
@@ -0,0 +1,192 @@
+package data_structures;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks the ConcurrentHash against a HashMap with random operations on one thread, then
+ * runs writers on disjoint key ranges from a small table, so the table is grown again and
+ * again while they add and remove, with an addAll and readers running at the same time. The
+ * readers check that every key a writer has finished adding, and never removes, is always
+ * found. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.ConcurrentHashTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ConcurrentHashTest {
+
+    // Keys per writer
+    private static final int RANGE = 50000;
+
+    public static void main(String[] args) throws InterruptedException {
+        randomOperations(new Random(5), 2000, 300000);
+        concurrentWriters(4, 4);
+        System.out.println("ConcurrentHashTest passed");
+    }
+
+    private static void randomOperations(Random random, int keys, int operations) {
+        ConcurrentHash<Integer, Integer> hash = new ConcurrentHash<Integer, Integer>(1);
+        Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(keys);
+            switch (random.nextInt(4)) {
+                case 0:
+                    check(hash.add(key, i) == (map.putIfAbsent(key, i) == null), "add " + key);
+                    break;
+                case 1:
+                    check(hash.remove(key) == (map.remove(key) != null), "remove " + key);
+                    break;
+                case 2:
+                    check(hash.changeValue(key, i) == map.containsKey(key), "changeValue " + key);
+                    if (map.containsKey(key))
+                        map.put(key, i);
+                    break;
+                default:
+                    check(hash.contains(key) == map.containsKey(key), "contains " + key);
+                    check(same(hash.getValue(key), map.get(key)), "getValue " + key);
+            }
+            check(hash.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 10007 == 0)
+                checkContents(hash, map);
+        }
+
+        checkContents(hash, map);
+        check(hash.loadFactor() <= hash.getMaxLoadFactor(), "the table grows with the adds");
+    }
+
+    /**
+     * Writer t owns the keys from t * RANGE to (t + 1) * RANGE - 1. It adds
+     * them in order and publishes how far it got. The odd keys are removed
+     * again and half of them added back, the even keys are never removed,
+     * so a reader must find every even key below the published mark. One
+     * more range is put in with addAll, which takes every lock at once.
+     */
+    private static void concurrentWriters(int writers, int readers) throws InterruptedException {
+        ConcurrentHash<Integer, Integer> hash = new ConcurrentHash<Integer, Integer>(64);
+        AtomicIntegerArray added = new AtomicIntegerArray(writers);
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] threads = new Thread[writers + 1 + readers];
+        int[] lookups = new int[readers];
+
+        for (int t = 0; t < writers; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    int base = id * RANGE;
+                    for (int i = 0; i < RANGE; i++) {
+                        check(hash.add(base + i, base + i), "add " + (base + i));
+                        added.set(id, i + 1);
+                    }
+                    for (int i = 1; i < RANGE; i += 2)
+                        check(hash.remove(base + i), "remove " + (base + i));
+                    for (int i = 1; i < RANGE; i += 4)
+                        check(hash.add(base + i, -(base + i)), "add " + (base + i) + " again");
+                    for (int i = 0; i < RANGE; i += 2)
+                        check(!hash.add(base + i, 0) && hash.changeValue(base + i, base + i), "duplicate " + (base + i));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+
+        threads[writers] = new Thread(() -> {
+            try {
+                Integer[] keys = new Integer[RANGE];
+                for (int i = 0; i < RANGE; i++)
+                    keys[i] = writers * RANGE + i;
+                check(hash.addAll(keys, keys, RANGE) == RANGE, "addAll");
+                check(hash.addAll(keys, keys, RANGE) == 0, "addAll again");
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+
+        for (int r = 0; r < readers; r++) {
+            int id = r;
+            Random random = new Random(50 + r);
+            threads[writers + 1 + r] = new Thread(() -> {
+                try {
+                    while (!done.get() || lookups[id] == 0) {
+                        int t = random.nextInt(writers);
+                        int mark = added.get(t);
+                        if (mark > 0) {
+                            Integer key = t * RANGE + (random.nextInt(mark) & ~1);
+                            check(hash.contains(key), "an added key is found: " + key);
+                            check(key.equals(hash.getValue(key)), "the value of " + key);
+                        }
+
+                        Integer missing = -1 - random.nextInt(RANGE);
+                        check(!hash.contains(missing), "a key that was never added: " + missing);
+
+                        int size = hash.size();
+                        check(size >= 0 && size <= (writers + 1) * RANGE, "size " + size);
+                        lookups[id]++;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+
+        for (Thread thread : threads)
+            thread.start();
+        for (int t = 0; t <= writers; t++)
+            threads[t].join();
+        done.set(true);
+        for (int t = writers + 1; t < threads.length; t++)
+            threads[t].join();
+
+        if (failure.get() != null)
+            throw new AssertionError("A thread failed", failure.get());
+
+        // Every range has its even keys and a quarter of the odd ones, plus the addAll range
+        Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+        for (int t = 0; t < writers; t++)
+            for (int i = 0; i < RANGE; i++) {
+                int key = t * RANGE + i;
+                if (i % 2 == 0)
+                    map.put(key, key);
+                else if (i % 4 == 1)
+                    map.put(key, -key);
+            }
+        for (int i = 0; i < RANGE; i++)
+            map.put(writers * RANGE + i, writers * RANGE + i);
+
+        check(hash.size() == map.size(), "size " + hash.size() + " after the writers, expected " + map.size());
+        checkContents(hash, map);
+        check(hash.loadFactor() <= hash.getMaxLoadFactor(), "the table grew with the writers");
+    }
+
+    private static void checkContents(ConcurrentHash<Integer, Integer> hash, Map<Integer, Integer> map) {
+        Set<Integer> seen = new HashSet<Integer>();
+        for (Integer key : hash) {
+            check(seen.add(key), "the iterator returns " + key + " once");
+            check(map.containsKey(key), "the iterator returns only keys in the map: " + key);
+        }
+        check(seen.size() == map.size(), "the iterator returns every key");
+
+        for (Map.Entry<Integer, Integer> e : map.entrySet())
+            check(e.getValue().equals(hash.getValue(e.getKey())), "value of " + e.getKey());
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,134 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks the ConcurrentRedBlackTree against a TreeMap with random adds and removes, calling
+ * blackNodes after every change, and checks that readers on other threads always see one
+ * consistent version of the tree while it is changed. Run it with the classes of src on the
+ * class path:
+ * <pre>
+ * java -cp bin data_structures.ConcurrentRedBlackTreeTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ConcurrentRedBlackTreeTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        randomOperations(new Random(24), 2000, 200000);
+        snapshots();
+        concurrentReaders(4, 300000);
+        System.out.println("ConcurrentRedBlackTreeTest passed");
+    }
+
+    private static void randomOperations(Random random, int keys, int operations) {
+        ConcurrentRedBlackTree<Integer, Integer> tree = new ConcurrentRedBlackTree<Integer, Integer>();
+        TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(keys);
+
+            if (random.nextInt(operations) > i / 2) {
+                tree.add(key, i);
+                map.putIfAbsent(key, i);
+            } else
+                check(tree.remove(key) == (map.remove(key) != null), "remove " + key);
+
+            tree.blackNodes();
+            check(tree.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 997 == 0)
+                RedBlackChecks.checkAgainst(tree, map, random, keys);
+        }
+
+        RedBlackChecks.checkAgainst(tree, map, random, keys);
+    }
+
+    private static void snapshots() {
+        ConcurrentRedBlackTree<Integer, Integer> tree = new ConcurrentRedBlackTree<Integer, Integer>();
+        for (int i = 0; i < 100; i++)
+            tree.add(i, i);
+
+        ConcurrentRedBlackTree<Integer, Integer> copy = tree.snapshot();
+        Iterator<Integer> it = tree.iterator();
+        for (int i = 0; i < 100; i += 2)
+            tree.remove(i);
+        tree.add(1000, 1000);
+
+        check(copy.size() == 100 && copy.contains(0) && !copy.contains(1000), "a snapshot does not see later changes");
+        check(tree.size() == 51 && !tree.contains(0) && tree.contains(1000), "the tree sees its own changes");
+        for (int i = 0; i < 100; i++)
+            check(it.hasNext() && it.next() == i, "an iterator walks the version it started on");
+        check(!it.hasNext(), "an iterator does not see later adds");
+
+        copy.add(-1, -1);
+        check(!tree.contains(-1), "changes to a snapshot do not show in the tree");
+        copy.blackNodes();
+        tree.blackNodes();
+    }
+
+    /**
+     * One writer adds and removes keys while readers take snapshots and
+     * check that every snapshot is sorted, is a valid tree, and has as many
+     * keys as its size says
+     */
+    private static void concurrentReaders(int readers, int writes) throws InterruptedException {
+        ConcurrentRedBlackTree<Integer, Integer> tree = new ConcurrentRedBlackTree<Integer, Integer>();
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[readers];
+        int[] scans = new int[readers];
+        AtomicBoolean done = new AtomicBoolean();
+
+        for (int t = 0; t < readers; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    while (!done.get() || scans[id] == 0) {
+                        ConcurrentRedBlackTree<Integer, Integer> snapshot = tree.snapshot();
+                        int count = 0;
+                        Integer previous = null;
+                        for (Integer key : snapshot) {
+                            check(previous == null || previous < key, "a scan is sorted");
+                            check(key.equals(snapshot.getValue(key)), "the value of " + key);
+                            previous = key;
+                            count++;
+                        }
+                        check(count == snapshot.size(), "a scan has as many keys as its snapshot");
+                        snapshot.blackNodes();
+                        scans[id]++;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            threads[t].start();
+        }
+
+        Random random = new Random(240);
+        for (int i = 0; i < writes && failure.get() == null; i++) {
+            Integer key = random.nextInt(5000);
+            if (random.nextBoolean())
+                tree.add(key, key);
+            else
+                tree.remove(key);
+        }
+
+        done.set(true);
+        for (Thread thread : threads)
+            thread.join();
+
+        if (failure.get() != null)
+            throw new AssertionError("A reader failed", failure.get());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
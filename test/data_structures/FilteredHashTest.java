@@ -0,0 +1,138 @@
+package data_structures;
+
+import java.util.Random;
+
+/**
+ * Checks FilteredHash against a plain Hash with the same operations, the false positive
+ * rate of the filter, and the count of rejected lookups from several threads. Run it with
+ * the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.FilteredHashTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class FilteredHashTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        randomOperations(new Random(14), 200000);
+        addAll();
+        prepareForReaders();
+        falsePositives();
+        concurrentRejects(8, 1000000);
+        System.out.println("FilteredHashTest passed");
+    }
+
+    private static void randomOperations(Random random, int operations) {
+        FilteredHash<Integer, Integer> filtered = new FilteredHash<Integer, Integer>(new Hash<Integer, Integer>());
+        Hash<Integer, Integer> plain = new Hash<Integer, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(50000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    check(filtered.add(key, i) == plain.add(key, i), "add " + key);
+                    break;
+                case 1:
+                    check(filtered.remove(key) == plain.remove(key), "remove " + key);
+                    break;
+                case 2:
+                    check(filtered.changeValue(key, i) == plain.changeValue(key, i), "changeValue " + key);
+                    break;
+                default:
+                    check(filtered.contains(key) == plain.contains(key), "contains " + key);
+                    check(same(filtered.getValue(key), plain.getValue(key)), "getValue " + key);
+            }
+            check(filtered.size() == plain.size(), "size after " + i + " operations");
+        }
+
+        for (Integer key : plain)
+            check(same(filtered.getValue(key), plain.getValue(key)), "every key is still found: " + key);
+    }
+
+    private static void addAll() {
+        int count = 100000;
+        Integer[] keys = new Integer[count];
+        Integer[] values = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = i % (count / 2);
+            values[i] = i;
+        }
+
+        FilteredHash<Integer, Integer> filtered = new FilteredHash<Integer, Integer>(new Hash<Integer, Integer>());
+        check(filtered.addAll(keys, values, count) == count / 2, "addAll counts only the keys it added");
+        for (int i = 0; i < count / 2; i++)
+            check(filtered.getValue(i) == i, "addAll keeps the first value of " + i);
+
+        // The filter was rebuilt with room to spare, so the next add does not rebuild it again
+        long bytes = filtered.filterBytes();
+        filtered.add(count, count);
+        check(filtered.filterBytes() == bytes, "an add right after addAll does not rebuild the filter");
+    }
+
+    /**
+     * The filter passes prepareForReaders on to the table it wraps
+     */
+    private static void prepareForReaders() {
+        Hash<Integer, Integer> table = new Hash<Integer, Integer>(64, true);
+        FilteredHash<Integer, Integer> filtered = new FilteredHash<Integer, Integer>(table);
+        for (int i = 0; !table.isRehashing(); i++)
+            filtered.add(i, i);
+
+        filtered.prepareForReaders();
+        check(!table.isRehashing(), "prepareForReaders finishes the resize of the table");
+    }
+
+    private static void falsePositives() {
+        int count = 100000;
+        FilteredHash<Integer, Integer> filtered =
+                new FilteredHash<Integer, Integer>(new Hash<Integer, Integer>(), 0.01);
+        filtered.ensureCapacity(count);
+        for (int i = 0; i < count; i++)
+            filtered.add(i, i);
+
+        int lookups = 200000;
+        for (int i = 0; i < lookups; i++)
+            check(!filtered.contains(count + i), "a missing key is not found");
+
+        double rate = 1 - (double) filtered.getRejected() / lookups;
+        check(rate < 0.02, "false positive rate " + rate + " is near the 1% the filter is sized for");
+    }
+
+    private static void concurrentRejects(int threads, int lookups) throws InterruptedException {
+        FilteredHash<Integer, Integer> filtered =
+                new FilteredHash<Integer, Integer>(new ConcurrentHash<Integer, Integer>());
+        for (int i = 0; i < 1000; i++)
+            filtered.add(i, i);
+
+        // Count the rejects of one thread first, every thread then looks up the same keys
+        long before = filtered.getRejected();
+        for (int i = 0; i < lookups; i++)
+            filtered.contains(-1 - i);
+        long single = filtered.getRejected() - before;
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < lookups; i++)
+                    filtered.contains(-1 - i);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+
+        check(filtered.getRejected() - before == single * (threads + 1),
+                "no rejected lookup is lost between threads");
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,296 @@
+package data_structures;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the Hash in both resize modes against a HashMap with random adds, removes, lookups
+ * and value changes, and checks that the iterators see every entry when an incremental
+ * resize is still moving buckets. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.HashTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class HashTest {
+
+    public static void main(String[] args) {
+        randomOperations(new Random(3), new Hash<Key, Integer>(4, true), 4, 2000, 300000);
+        randomOperations(new Random(4), new Hash<Key, Integer>(4, true), 1 << 30, 20000, 300000);
+        randomOperations(new Random(5), new Hash<Key, Integer>(4), 1 << 30, 20000, 100000);
+        iterateWhileRehashing();
+        addAll();
+        ensureCapacity();
+        iterators();
+        System.out.println("HashTest passed");
+    }
+
+    /**
+     * Random operations on keys from 0 to keys - 1, whose hash codes are the
+     * key modulo buckets. The table starts small, so it resizes many times and
+     * most of the operations run while an incremental resize is in progress.
+     * Hash.add does not check for duplicates, so only new keys are added.
+     */
+    private static void randomOperations(Random random, Hash<Key, Integer> hash,
+                                         int buckets, int keys, int operations) {
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+        int rehashing = 0;
+
+        for (int i = 0; i < operations; i++) {
+            Key key = new Key(random.nextInt(keys), buckets);
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (!map.containsKey(key)) {
+                        check(hash.add(key, i), "add " + key);
+                        map.put(key, i);
+                    }
+                    break;
+                case 1:
+                    check(hash.remove(key) == (map.remove(key) != null), "remove " + key);
+                    break;
+                case 2:
+                    check(hash.changeValue(key, i) == map.containsKey(key), "changeValue " + key);
+                    if (map.containsKey(key))
+                        map.put(key, i);
+                    break;
+                default:
+                    check(hash.contains(key) == map.containsKey(key), "contains " + key);
+                    check(same(hash.getValue(key), map.get(key)), "getValue " + key);
+            }
+            check(hash.size() == map.size(), "size after " + i + " operations");
+
+            if (hash.isRehashing()) {
+                rehashing++;
+                if (rehashing % 101 == 0)
+                    checkContents(hash, map);
+            }
+            if (i % 10007 == 0)
+                checkContents(hash, map);
+        }
+
+        checkContents(hash, map);
+        check(hash.loadFactor() <= 2 * hash.getMaxLoadFactor(), "the table keeps up with the adds");
+    }
+
+    /**
+     * Lookups move buckets too, so a resize started by adds is drained by
+     * lookups alone, and the iterators finish it before they walk the table
+     */
+    private static void iterateWhileRehashing() {
+        Hash<Key, Integer> hash = new Hash<Key, Integer>(64, true);
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+        int i = fillUntilRehashing(hash, map);
+
+        check(hash.tableSize() == 64 + 128, "both tables are counted during the resize");
+        int lookups = 0;
+        while (hash.isRehashing()) {
+            check(hash.contains(new Key(lookups % i, 1 << 30)), "contains during the resize");
+            lookups++;
+        }
+        check(lookups <= 64 / 4 + 1, "lookups alone finish the resize");
+        check(hash.tableSize() == 128, "only the new table is left");
+        checkContents(hash, map);
+
+        // A resize that is started by hand is finished by finishRehash
+        hash.resize(1000);
+        check(hash.isRehashing(), "an incremental resize is spread out");
+        hash.finishRehash();
+        check(!hash.isRehashing(), "finishRehash drains the old table");
+        checkContents(hash, map);
+
+        // The key iterator finishes the resize, so looking up every key it returns sees them all
+        hash = new Hash<Key, Integer>(4, true);
+        map.clear();
+        fillUntilRehashing(hash, map);
+        Set<Key> seen = new HashSet<Key>();
+        for (Key key : hash) {
+            check(seen.add(key), "the iterator returns " + key + " once");
+            check(map.get(key).equals(hash.getValue(key)), "getValue while iterating " + key);
+        }
+        check(seen.size() == map.size(), "getValue inside the loop does not lose keys");
+        check(!hash.isRehashing(), "the iterator finished the resize");
+
+        // And so does the entry iterator
+        hash.resize(100);
+        check(hash.isRehashing(), "a new resize is in progress");
+        Iterator<Hash.HashElement<Key, Integer>> entries = hash.entryIterator();
+        int count = 0;
+        while (entries.hasNext()) {
+            Hash.HashElement<Key, Integer> he = entries.next();
+            check(he.getValue().equals(hash.getValue(he.getKey())), "entry " + he.getKey());
+            count++;
+        }
+        check(count == map.size(), "the entry iterator returns every entry");
+
+        // prepareForReaders finishes a resize as well
+        hash.resize(1000);
+        hash.prepareForReaders();
+        check(!hash.isRehashing(), "prepareForReaders drains the old table");
+        checkContents(hash, map);
+    }
+
+    /**
+     * Adds new keys until an incremental resize starts
+     *
+     * @return the number of keys added
+     */
+    private static int fillUntilRehashing(Hash<Key, Integer> hash, Map<Key, Integer> map) {
+        int i = 0;
+        while (!hash.isRehashing()) {
+            hash.add(new Key(i, 1 << 30), i);
+            map.put(new Key(i, 1 << 30), i);
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * addAll skips keys that are already in the dictionary or earlier in
+     * the arrays, and keeps their first values
+     */
+    private static void addAll() {
+        Hash<Key, Integer> hash = new Hash<Key, Integer>(8, true);
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+        for (int i = 0; i < 20; i++) {
+            hash.add(new Key(i, 4), i);
+            map.put(new Key(i, 4), i);
+        }
+
+        Key[] keys = new Key[100];
+        Integer[] values = new Integer[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(i / 2, 4);
+            values[i] = -i;
+            map.putIfAbsent(keys[i], -i);
+        }
+
+        check(hash.addAll(keys, values, 60) == 10, "only the 10 new keys of the first 60 pairs are added");
+        check(hash.addAll(keys, values, keys.length) == 20, "the pairs added before are skipped");
+        check(hash.size() == map.size() && hash.size() == 50, "size after addAll");
+        check(hash.getValue(new Key(3, 4)) == 3 && hash.getValue(new Key(25, 4)) == -50,
+                "the first value of a key is kept");
+        check(!hash.isRehashing() && hash.loadFactor() <= hash.getMaxLoadFactor(), "addAll sizes the table once");
+        checkContents(hash, map);
+
+        check(hash.addAll(keys, values, 0) == 0 && hash.size() == 50, "adding no pairs");
+    }
+
+    /**
+     * Once ensureCapacity made room, adding that many entries one at a
+     * time never resizes, so the table size seen through the load factor
+     * stays the same and an incremental resize is never started
+     */
+    private static void ensureCapacity() {
+        for (boolean incremental : new boolean[] { false, true }) {
+            Hash<Key, Integer> hash = new Hash<Key, Integer>(4, incremental);
+            hash.add(new Key(-1, 1 << 30), -1);
+            hash.ensureCapacity(10000);
+            check(!hash.isRehashing(), "ensureCapacity finishes its resize");
+
+            long tableSize = Math.round(hash.size() / hash.loadFactor());
+            check(tableSize >= 10000 / hash.getMaxLoadFactor(), "the table has room for 10000 entries");
+
+            for (int i = 1; i < 10000; i++) {
+                hash.add(new Key(i, 1 << 30), i);
+                check(!hash.isRehashing() && Math.round(hash.size() / hash.loadFactor()) == tableSize,
+                        "no resize after " + i + " adds");
+            }
+
+            // A smaller expected count never shrinks the table
+            hash.ensureCapacity(10);
+            check(Math.round(hash.size() / hash.loadFactor()) == tableSize, "ensureCapacity does not shrink");
+
+            hash.add(new Key(10000, 1 << 30), 10000);
+            hash.add(new Key(10001, 1 << 30), 10001);
+            check(Math.round(hash.size() / hash.loadFactor()) > tableSize, "the table grows past the capacity");
+        }
+    }
+
+    /**
+     * The iterators skip the buckets that were never created and the ones
+     * emptied by removes, fail after the last entry, and do not remove
+     */
+    private static void iterators() {
+        Hash<Key, Integer> hash = new Hash<Key, Integer>(1000);
+        check(!hash.iterator().hasNext() && !hash.entryIterator().hasNext(), "no buckets created yet");
+        exhausted(hash.iterator());
+
+        // Only the first and the last bucket are used
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+        for (int i = 0; i < 3; i++) {
+            hash.add(new Key(1000 * i, 1000000), i);
+            hash.add(new Key(1000 * i + 999, 1000000), -i);
+            map.put(new Key(1000 * i, 1000000), i);
+            map.put(new Key(1000 * i + 999, 1000000), -i);
+        }
+        checkContents(hash, map);
+
+        Iterator<Key> keys = hash.iterator();
+        for (int i = 0; i < map.size(); i++)
+            keys.next();
+        exhausted(keys);
+
+        // The first bucket is left empty but still there
+        for (int i = 0; i < 3; i++) {
+            hash.remove(new Key(1000 * i, 1000000));
+            map.remove(new Key(1000 * i, 1000000));
+        }
+        checkContents(hash, map);
+
+        Iterator<Hash.HashElement<Key, Integer>> entries = hash.entryIterator();
+        check(entries.next().getKey().hash == 999, "the emptied bucket is skipped");
+        try {
+            entries.remove();
+            throw new AssertionError("the iterators do not remove");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        check(hash.size() == 3, "a failed remove leaves the entries");
+        entries.next();
+        entries.next();
+        exhausted(entries);
+
+        hash.makeEmpty();
+        exhausted(hash.iterator());
+        exhausted(hash.entryIterator());
+    }
+
+    private static void exhausted(Iterator<?> it) {
+        check(!it.hasNext(), "no entries left");
+        try {
+            it.next();
+            throw new AssertionError("next fails after the last entry");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        check(!it.hasNext(), "still no entries left");
+    }
+
+    private static void checkContents(Hash<Key, Integer> hash, Map<Key, Integer> map) {
+        Set<Key> seen = new HashSet<Key>();
+        for (Key key : hash) {
+            check(seen.add(key), "the iterator returns " + key + " once");
+            check(map.containsKey(key), "the iterator returns only keys in the map");
+        }
+        check(seen.size() == map.size(), "the iterator returns every key");
+
+        for (Map.Entry<Key, Integer> e : map.entrySet())
+            check(e.getValue().equals(hash.getValue(e.getKey())), "value of " + e.getKey());
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,38 @@
+package data_structures;
+
+/**
+ * A key with a chosen hash code, so that keys can be made to collide. It is shared by the
+ * hash table tests, which are run one at a time, so it is not a test itself.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+class Key implements Comparable<Key> {
+
+    final int id, hash;
+
+    /**
+     * @param id      the identity of the key, keys with the same id are equal
+     * @param buckets the hash code is the id modulo buckets
+     */
+    Key(int id, int buckets) {
+        this.id = id;
+        hash = id % buckets;
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    public boolean equals(Object o) {
+        return o instanceof Key && ((Key) o).id == id;
+    }
+
+    public int compareTo(Key other) {
+        return Integer.compare(id, other.id);
+    }
+
+    public String toString() {
+        return Integer.toString(id);
+    }
+}
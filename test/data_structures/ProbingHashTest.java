@@ -0,0 +1,170 @@
+package data_structures;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the ProbingHash against a HashMap with random adds, removes, lookups and value
+ * changes, with keys whose hash codes collide often so that the Robin Hood swaps and the
+ * backward shift of remove are exercised. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.ProbingHashTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ProbingHashTest {
+
+    public static void main(String[] args) {
+        randomOperations(new Random(1), new ProbingHash<Key, Integer>(16), 4, 2000, 500000);
+        randomOperations(new Random(2), new ProbingHash<Key, Integer>(16), 1 << 30, 20000, 500000);
+        removeAndAddAgain();
+        resize();
+        duplicates();
+        System.out.println("ProbingHashTest passed");
+    }
+
+    /**
+     * Random operations on keys from 0 to keys - 1, whose hash codes are
+     * the key modulo buckets, so a small number of buckets means long runs
+     * of colliding keys
+     */
+    private static void randomOperations(Random random, ProbingHash<Key, Integer> hash,
+                                         int buckets, int keys, int operations) {
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Key key = new Key(random.nextInt(keys), buckets);
+            switch (random.nextInt(4)) {
+                case 0:
+                    check(hash.add(key, i) == (map.putIfAbsent(key, i) == null), "add " + key);
+                    break;
+                case 1:
+                    check(hash.remove(key) == (map.remove(key) != null), "remove " + key);
+                    break;
+                case 2:
+                    check(hash.changeValue(key, i) == map.containsKey(key), "changeValue " + key);
+                    if (map.containsKey(key))
+                        map.put(key, i);
+                    break;
+                default:
+                    check(hash.contains(key) == map.containsKey(key), "contains " + key);
+                    check(same(hash.getValue(key), map.get(key)), "getValue " + key);
+            }
+            check(hash.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 10007 == 0)
+                checkContents(hash, map);
+        }
+
+        checkContents(hash, map);
+        check(hash.loadFactor() <= hash.getMaxLoadFactor(), "the load factor stays below the maximum");
+    }
+
+    private static void removeAndAddAgain() {
+        // Every key in the same bucket, so every remove shifts the rest of the run back
+        ProbingHash<Key, Integer> hash = new ProbingHash<Key, Integer>(64);
+        for (int i = 0; i < 40; i++)
+            hash.add(new Key(i, 1), i);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = round; i < 40; i += 3)
+                check(hash.remove(new Key(i, 1)), "remove " + i);
+            for (int i = 0; i < 40; i++)
+                check(hash.contains(new Key(i, 1)) == ((i - round) % 3 != 0 || i < round),
+                        "the keys after a removed key are still found, round " + round);
+            for (int i = round; i < 40; i += 3)
+                check(hash.add(new Key(i, 1), -i), "add " + i + " again");
+            for (int i = round; i < 40; i += 3)
+                check(hash.getValue(new Key(i, 1)) == -i, "a key added again has its new value");
+        }
+        check(hash.size() == 40, "size after removing and adding again");
+
+        hash.makeEmpty();
+        check(hash.isEmpty() && !hash.iterator().hasNext() && !hash.contains(new Key(0, 1)), "makeEmpty");
+        check(hash.add(new Key(0, 1), 0), "add after makeEmpty");
+    }
+
+    private static void resize() {
+        ProbingHash<Key, Integer> hash = new ProbingHash<Key, Integer>(16);
+        Map<Key, Integer> map = new HashMap<Key, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            hash.add(new Key(i, 64), i);
+            map.put(new Key(i, 64), i);
+        }
+
+        // An explicit resize never makes the table too small for its elements
+        hash.resize(1);
+        checkContents(hash, map);
+        hash.resize(1 << 16);
+        checkContents(hash, map);
+        check(hash.loadFactor() < 0.02, "a larger table after resize");
+
+        hash.ensureCapacity(100000);
+        double load = hash.loadFactor();
+        Key[] keys = new Key[5000];
+        Integer[] values = new Integer[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(1000 + i, 64);
+            values[i] = i;
+            map.put(keys[i], i);
+        }
+        check(hash.addAll(keys, values, keys.length) == keys.length, "addAll");
+        check(hash.loadFactor() > load, "no resize within the capacity made by ensureCapacity");
+        checkContents(hash, map);
+
+        try {
+            hash.setMaxLoadFActor(1);
+            throw new AssertionError("open addressing needs a load factor below 1");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Unlike Hash.add, which stores a second entry for a key that is already
+     * there, ProbingHash.add refuses the duplicate and keeps the first value.
+     * Both skip duplicates in addAll.
+     */
+    private static void duplicates() {
+        ProbingHash<Key, Integer> probing = new ProbingHash<Key, Integer>(16);
+        Hash<Key, Integer> chained = new Hash<Key, Integer>(16);
+        Key key = new Key(7, 1);
+
+        check(probing.add(key, 1) && !probing.add(key, 2), "a duplicate add is refused");
+        check(probing.size() == 1 && probing.getValue(key) == 1, "the first value is kept");
+
+        check(chained.add(key, 1) && chained.add(key, 2), "Hash.add does not check for duplicates");
+        check(chained.size() == 2, "Hash keeps both entries");
+
+        Key[] keys = { new Key(1, 1), new Key(2, 1), new Key(1, 1), key };
+        Integer[] values = { 10, 20, 30, 40 };
+        check(probing.addAll(keys, values, keys.length) == 2, "addAll skips duplicates");
+        check(probing.getValue(new Key(1, 1)) == 10 && probing.getValue(key) == 1, "addAll keeps the first values");
+    }
+
+    private static void checkContents(ProbingHash<Key, Integer> hash, Map<Key, Integer> map) {
+        Set<Key> seen = new HashSet<Key>();
+        for (Key key : hash) {
+            check(seen.add(key), "the iterator returns " + key + " once");
+            check(map.containsKey(key), "the iterator returns only keys in the map");
+        }
+        check(seen.size() == map.size(), "the iterator returns every key");
+
+        for (Map.Entry<Key, Integer> e : map.entrySet())
+            check(e.getValue().equals(hash.getValue(e.getKey())), "value of " + e.getKey());
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,72 @@
+package data_structures;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import interfaces.RedBlackI;
+
+/**
+ * Checks that are shared by the tests of the RedBlackI implementations, which are run one at
+ * a time, so it is not a test itself.
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+class RedBlackChecks {
+
+    /**
+     * Compare the keys, values and ordered queries of a RedBlackI with a TreeMap
+     */
+    static void checkAgainst(RedBlackI<Integer, Integer> tree, TreeMap<Integer, Integer> map,
+                             Random random, int keys) {
+        Iterator<Integer> it = tree.iterator();
+        for (Map.Entry<Integer, Integer> e : map.entrySet()) {
+            check(it.hasNext() && it.next().equals(e.getKey()), "in order iteration");
+            check(e.getValue().equals(tree.getValue(e.getKey())), "value of " + e.getKey());
+        }
+        check(!it.hasNext(), "no extra keys");
+
+        check(same(tree.first(), map.isEmpty() ? null : map.firstKey()), "first");
+        check(same(tree.last(), map.isEmpty() ? null : map.lastKey()), "last");
+
+        for (int i = 0; i < 200; i++) {
+            Integer key = random.nextInt(keys + 2) - 1;
+            Integer other = random.nextInt(keys + 2) - 1;
+            Integer lo = Math.min(key, other), hi = Math.max(key, other);
+
+            check(tree.contains(key) == map.containsKey(key), "contains " + key);
+            check(same(tree.floor(key), map.floorKey(key)), "floor " + key);
+            check(same(tree.ceiling(key), map.ceilingKey(key)), "ceiling " + key);
+            check(tree.rank(key) == map.headMap(key).size(), "rank " + key);
+            check(tree.countBetween(lo, hi) == map.subMap(lo, true, hi, true).size(), "countBetween " + lo + " " + hi);
+
+            Iterator<Integer> range = tree.subMap(lo, hi);
+            for (Integer expected : map.subMap(lo, hi).keySet())
+                check(range.hasNext() && range.next().equals(expected), "subMap " + lo + " " + hi);
+            check(!range.hasNext(), "subMap stops before " + hi);
+
+            if (!map.isEmpty()) {
+                int index = random.nextInt(map.size());
+                check(tree.select(index).equals(map.keySet().toArray()[index]), "select " + index);
+            }
+        }
+
+        try {
+            tree.select(map.size());
+            throw new AssertionError("select past the last key");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
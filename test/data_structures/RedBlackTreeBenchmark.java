@@ -0,0 +1,83 @@
+package data_structures;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Measures how fast keys are added to the RedBlackTree in ascending, descending and random
+ * order, with a TreeMap as the baseline, and how fast fromSorted builds a tree of the sorted
+ * keys. Every case is run several times and the best run is reported. Run it with the classes
+ * of src on the class path, optionally with the number of keys and of runs:
+ * <pre>
+ * java -cp bin data_structures.RedBlackTreeBenchmark 1000000 7
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class RedBlackTreeBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+
+        System.out.printf("%d keys, best of %d runs%n", n, runs);
+        for (String order : new String[] { "sorted", "reverse", "random" }) {
+            Integer[] keys = keys(order, n);
+            double tree = Double.MAX_VALUE, map = Double.MAX_VALUE;
+
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                RedBlackTree<Integer, Integer> t = new RedBlackTree<Integer, Integer>();
+                for (Integer key : keys)
+                    t.add(key, key);
+                long middle = System.nanoTime();
+                TreeMap<Integer, Integer> m = new TreeMap<Integer, Integer>();
+                for (Integer key : keys)
+                    m.put(key, key);
+                long end = System.nanoTime();
+
+                if (t.size() != n || m.size() != n)
+                    throw new IllegalStateException("A key was lost");
+
+                tree = Math.min(tree, (middle - start) / 1e6);
+                map = Math.min(map, (end - middle) / 1e6);
+            }
+
+            System.out.printf("%-8s RedBlackTree %8.1f ms (%5.2f M/s)   TreeMap %8.1f ms (%5.2f M/s)%n",
+                    order, tree, n / tree / 1000, map, n / map / 1000);
+        }
+
+        // The same sorted keys built in one pass
+        Integer[] keys = keys("sorted", n);
+        double built = Double.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            RedBlackTree<Integer, Integer> t = RedBlackTree.fromSorted(keys, keys);
+            long end = System.nanoTime();
+
+            if (t.size() != n)
+                throw new IllegalStateException("A key was lost");
+            built = Math.min(built, (end - start) / 1e6);
+        }
+        System.out.printf("%-8s RedBlackTree %8.1f ms (%5.2f M/s)%n", "built", built, n / built / 1000);
+    }
+
+    private static Integer[] keys(String order, int n) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = order.equals("reverse") ? n - i : i;
+
+        if (order.equals("random")) {
+            Random random = new Random(7);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer tmp = keys[i];
+                keys[i] = keys[j];
+                keys[j] = tmp;
+            }
+        }
+
+        return keys;
+    }
+}
@@ -0,0 +1,298 @@
+package data_structures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Checks the RedBlackTree against a TreeMap with random adds and removes. After every change
+ * the tree is checked with blackNodes, and the parent links and subtree counts are checked
+ * too. Every so often the ordered queries are compared with the TreeMap. Trees built by
+ * fromSorted and merge are checked the same way. rank, select and countBetween are also
+ * checked against each other, and the iterators are checked to stop early and to fail when
+ * the tree changes. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin data_structures.RedBlackTreeTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class RedBlackTreeTest {
+
+    public static void main(String[] args) {
+        addRemove(new Random(18), 500, 20000);
+        addRemove(new Random(181), 5000, 20000);
+        removeAll(1000);
+        fromSorted(300);
+        merge(new Random(23), 2000);
+        earlyStop(100000);
+        failFast();
+        orderStatistics(new Random(22), 3000);
+        System.out.println("RedBlackTreeTest passed");
+    }
+
+    private static void addRemove(Random random, int keys, int operations) {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>();
+        TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(keys);
+
+            // More adds than removes at first, then more removes, so the tree grows and shrinks
+            boolean add = random.nextInt(operations) > i / 2;
+            if (add) {
+                tree.add(key, i);
+                map.putIfAbsent(key, i);
+            } else
+                check(tree.remove(key) == (map.remove(key) != null), "remove " + key);
+
+            checkTree(tree);
+            check(tree.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 97 == 0) {
+                checkContents(tree, map, keys);
+                RedBlackChecks.checkAgainst(tree, map, random, keys);
+            }
+        }
+
+        checkContents(tree, map, keys);
+        RedBlackChecks.checkAgainst(tree, map, random, keys);
+    }
+
+    private static void removeAll(int keys) {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>();
+        for (int i = 0; i < keys; i++)
+            tree.add(i, i);
+
+        // Ascending removes always take the leftmost node, descending the rightmost
+        for (int i = 0; i < keys / 2; i++) {
+            check(tree.remove(i), "remove " + i);
+            check(tree.remove(keys - 1 - i), "remove " + (keys - 1 - i));
+            checkTree(tree);
+        }
+
+        check(tree.isEmpty() && tree.root == null && !tree.iterator().hasNext(), "every key removed");
+        check(!tree.remove(0), "remove from an empty tree");
+    }
+
+    private static void fromSorted(int max) {
+        // Every size up to max, so every shape of the deepest level is built
+        for (int n = 0; n <= max; n++) {
+            Integer[] keys = new Integer[n];
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = 2 * i;
+                values[i] = -i;
+            }
+
+            RedBlackTree<Integer, Integer> tree = RedBlackTree.fromSorted(keys, values);
+            checkTree(tree);
+            check(tree.size() == n, "size of a tree built from " + n + " keys");
+            check(n == 0 || tree.height() <= 2 * (32 - Integer.numberOfLeadingZeros(n)), "height of " + n + " keys");
+
+            TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+            for (int i = 0; i < n; i++)
+                map.put(keys[i], values[i]);
+            checkContents(tree, map, 2 * n);
+            if (n % 50 == 0)
+                RedBlackChecks.checkAgainst(tree, map, new Random(n), 2 * n);
+
+            // The built tree is an ordinary tree afterwards
+            tree.add(-1, 1);
+            tree.add(2 * n + 1, 1);
+            tree.remove(n - n % 2);
+            checkTree(tree);
+        }
+
+        RedBlackTree<Integer, Integer> keysOnly =
+                RedBlackTree.fromSorted(List.of(1, 2, 3).iterator(), null, 3);
+        checkTree(keysOnly);
+        check(keysOnly.contains(2) && keysOnly.getValue(2) == null, "a tree built without values");
+
+        for (Integer[] keys : new Integer[][] { { 1, 3, 2 }, { 1, 1 } })
+            try {
+                RedBlackTree.fromSorted(keys, keys);
+                throw new AssertionError("keys out of order or repeated are rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+    }
+
+    private static void merge(Random random, int keys) {
+        RedBlackTree<Integer, Integer> a = new RedBlackTree<Integer, Integer>();
+        RedBlackTree<Integer, Integer> b = new RedBlackTree<Integer, Integer>();
+        TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < keys; i++) {
+            Integer key = random.nextInt(2 * keys);
+            if (random.nextBoolean())
+                a.add(key, 1);
+            else
+                b.add(key, 2);
+        }
+        for (Integer key : a)
+            map.put(key, 1);
+        for (Integer key : b)
+            map.put(key, 2);
+
+        int sizeA = a.size(), sizeB = b.size();
+        RedBlackTree<Integer, Integer> merged = RedBlackTree.merge(a, b);
+        checkTree(merged);
+        check(merged.size() == map.size(), "a key in both trees is merged once");
+        checkContents(merged, map, 2 * keys);
+        RedBlackChecks.checkAgainst(merged, map, random, 2 * keys);
+        check(a.size() == sizeA && b.size() == sizeB, "merge does not change its inputs");
+
+        check(RedBlackTree.merge(a, new RedBlackTree<Integer, Integer>()).size() == sizeA, "merge with an empty tree");
+        check(RedBlackTree.merge(new RedBlackTree<Integer, Integer>(), new RedBlackTree<Integer, Integer>()).isEmpty(),
+                "merge of two empty trees");
+    }
+
+    /**
+     * An iterator that is left after a few keys has walked only those, and a
+     * range ends at its upper bound however many keys follow
+     */
+    private static void earlyStop(int keys) {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>();
+        for (int i = 0; i < keys; i++)
+            tree.add(i, i);
+
+        Iterator<Integer> it = tree.iterator();
+        for (int i = 0; i < 3; i++)
+            check(it.next() == i, "the first keys in order");
+        check(it.hasNext(), "the rest of the keys are still there");
+
+        Iterator<Integer> range = tree.subMap(keys / 2, keys / 2 + 3);
+        for (int i = 0; i < 3; i++)
+            check(range.next() == keys / 2 + i, "a range starts at its lower bound");
+        check(!range.hasNext(), "a range stops before its upper bound");
+
+        check(!tree.subMap(-10, 0).hasNext() && !tree.subMap(keys, keys + 10).hasNext(), "empty ranges");
+
+        // Iterators that were left do not stop the tree from changing
+        tree.remove(0);
+        tree.add(-1, -1);
+        checkTree(tree);
+    }
+
+    /**
+     * An iterator fails once the tree was changed by an add of a new key
+     * or a remove, but not by an add of a key that is already there
+     */
+    private static void failFast() {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.add(i, i);
+
+        for (int change = 0; change < 3; change++) {
+            Iterator<Integer> it = change == 2 ? tree.subMap(2, 8) : tree.iterator();
+            it.next();
+
+            if (change == 0)
+                tree.add(100, 100);
+            else
+                tree.remove(it.next());
+
+            try {
+                it.next();
+                throw new AssertionError("an iterator fails after the tree changes");
+            } catch (ConcurrentModificationException e) {
+                // expected
+            }
+        }
+
+        Iterator<Integer> it = tree.iterator();
+        it.next();
+        tree.add(5, 5);
+        it.next();
+    }
+
+    /**
+     * rank and select are inverses of each other, countBetween is a
+     * difference of ranks, and select fails outside of 0 to size() - 1
+     */
+    private static void orderStatistics(Random random, int keys) {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>();
+        check(tree.rank(5) == 0 && tree.countBetween(0, 10) == 0, "an empty tree");
+        selectFails(tree, 0);
+
+        for (int i = 0; i < keys; i++)
+            tree.add(2 * random.nextInt(keys), i);
+
+        for (int i = 0; i < tree.size(); i++) {
+            Integer key = tree.select(i);
+            check(tree.rank(key) == i, "rank of select " + i);
+            check(tree.rank(key + 1) == i + 1, "rank of a missing key after select " + i);
+            check(tree.countBetween(key, key) == 1 && tree.countBetween(key + 1, key + 1) == 0,
+                    "countBetween one key at " + i);
+        }
+        check(tree.countBetween(tree.last(), tree.first()) == 0, "countBetween with lo after hi");
+        check(tree.countBetween(-1, 2 * keys) == tree.size(), "countBetween every key");
+
+        selectFails(tree, -1);
+        selectFails(tree, tree.size());
+    }
+
+    private static void selectFails(RedBlackTree<Integer, Integer> tree, int index) {
+        try {
+            tree.select(index);
+            throw new AssertionError("select " + index + " of " + tree.size() + " keys");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    /**
+     * The tree is a valid red black tree with a black root, correct parent
+     * links and correct subtree counts
+     */
+    static void checkTree(RedBlackTree<Integer, Integer> tree) {
+        if (tree.root == null) {
+            check(tree.size == 0, "an empty tree has size 0");
+            return;
+        }
+
+        check(tree.root.black, "the root is black");
+        check(tree.root.parent == null, "the root has no parent");
+        tree.blackNodes(tree.root);
+        check(checkLinks(tree.root, null, null) == tree.size, "the root counts every key");
+    }
+
+    // Returns the number of keys below node, which are all between lo and hi
+    private static int checkLinks(RedBlackTree<Integer, Integer>.Node<Integer, Integer> node, Integer lo, Integer hi) {
+        if (node == null)
+            return 0;
+
+        check(lo == null || node.key > lo, "the keys are in order");
+        check(hi == null || node.key < hi, "the keys are in order");
+        if (node.left != null)
+            check(node.left.parent == node && node.left.leftChild, "left child link of " + node.key);
+        if (node.right != null)
+            check(node.right.parent == node && !node.right.leftChild, "right child link of " + node.key);
+
+        int count = 1 + checkLinks(node.left, lo, node.key) + checkLinks(node.right, node.key, hi);
+        check(node.count == count, "subtree count of " + node.key);
+        return count;
+    }
+
+    private static void checkContents(RedBlackTree<Integer, Integer> tree, TreeMap<Integer, Integer> map, int keys) {
+        Iterator<Integer> it = tree.iterator();
+        for (Map.Entry<Integer, Integer> e : map.entrySet()) {
+            check(it.hasNext() && it.next().equals(e.getKey()), "in order iteration");
+            check(e.getValue().equals(tree.getValue(e.getKey())), "value of " + e.getKey());
+        }
+        check(!it.hasNext(), "no extra keys");
+
+        for (int key = -1; key <= keys; key++)
+            check(tree.contains(key) == map.containsKey(key), "contains " + key);
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
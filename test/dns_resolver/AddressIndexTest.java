@@ -0,0 +1,156 @@
+package dns_resolver;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import data_structures.Hash;
+
+/**
+ * Checks that the reverse index of the AddressIndex always matches its forward table, with
+ * random adds, removes and value changes over a few addresses so most of them have several
+ * URLs. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin dns_resolver.AddressIndexTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class AddressIndexTest {
+
+    private static final int ADDRESSES = 50;
+
+    public static void main(String[] args) {
+        randomOperations(new Random(10), 2000, 100000);
+        existingTable();
+        memory();
+        System.out.println("AddressIndexTest passed");
+    }
+
+    private static void randomOperations(Random random, int keys, int operations) {
+        AddressIndex index = new AddressIndex(new Hash<URL, IPAddress>(16, true));
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+
+        for (int i = 0; i < operations; i++) {
+            URL key = name(random.nextInt(keys));
+            IPAddress ip = new IPAddress(random.nextInt(ADDRESSES));
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    check(index.add(key, ip) == (map.putIfAbsent(key, ip) == null), "add " + key);
+                    break;
+                case 1:
+                    check(index.remove(key) == (map.remove(key) != null), "remove " + key);
+                    break;
+                default:
+                    check(index.changeValue(key, ip) == map.containsKey(key), "changeValue " + key);
+                    if (map.containsKey(key))
+                        map.put(key, ip);
+            }
+            check(index.size() == map.size(), "size after " + i + " operations");
+
+            if (i % 997 == 0)
+                checkReverse(index, map);
+        }
+
+        checkReverse(index, map);
+
+        // Moving every URL to one address and removing them all empties the reverse index
+        for (URL url : map.keySet())
+            check(index.changeValue(url, new IPAddress(0)), "changeValue " + url);
+        check(index.countURLs(new IPAddress(0)) == map.size(), "every URL has the same address");
+        for (URL url : map.keySet())
+            check(index.remove(url), "remove " + url);
+        map.clear();
+        checkReverse(index, map);
+    }
+
+    /**
+     * A table that already has entries is indexed when it is wrapped
+     */
+    private static void existingTable() {
+        Hash<URL, IPAddress> table = new Hash<URL, IPAddress>(16);
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+        for (int i = 0; i < 500; i++) {
+            table.add(name(i), new IPAddress(i % 7));
+            map.put(name(i), new IPAddress(i % 7));
+        }
+
+        AddressIndex index = new AddressIndex(table);
+        checkReverse(index, map);
+
+        check(!index.add(name(3), new IPAddress(100)), "a duplicate is refused");
+        check(index.countURLs(new IPAddress(100)) == 0, "a refused add is not indexed");
+        check(!index.remove(name(1000)) && !index.changeValue(name(1000), new IPAddress(1)), "an unknown URL");
+
+        URL[] keys = { name(1000), name(1001), name(3) };
+        IPAddress[] values = { new IPAddress(8), new IPAddress(8), new IPAddress(8) };
+        check(index.addAll(keys, values, keys.length) == 2, "addAll skips the duplicate");
+        map.put(name(1000), new IPAddress(8));
+        map.put(name(1001), new IPAddress(8));
+        checkReverse(index, map);
+
+        index.makeEmpty();
+        map.clear();
+        checkReverse(index, map);
+    }
+
+    /**
+     * The estimate grows with the entries and does not depend on the load
+     * factor of the reverse table
+     */
+    private static void memory() {
+        AddressIndex index = new AddressIndex(new Hash<URL, IPAddress>(16));
+        long empty = index.reverseIndexBytes();
+        check(empty > 0, "an empty index still has its buckets");
+
+        long previous = empty;
+        for (int i = 0; i < 1000; i++) {
+            index.add(name(i), new IPAddress(i));
+            long bytes = index.reverseIndexBytes();
+            check(bytes > previous, "the estimate grows with every address");
+            previous = bytes;
+        }
+
+        // More URLs for the same addresses only add a node each
+        index.add(name(1000), new IPAddress(0));
+        check(index.reverseIndexBytes() - previous < 32, "a URL of a known address is cheap");
+
+        for (int i = 0; i <= 1000; i++)
+            index.remove(name(i));
+        check(index.reverseIndexBytes() < previous, "the estimate shrinks again");
+    }
+
+    private static void checkReverse(AddressIndex index, Map<URL, IPAddress> map) {
+        Map<IPAddress, Set<URL>> expected = new HashMap<IPAddress, Set<URL>>();
+        for (Map.Entry<URL, IPAddress> e : map.entrySet()) {
+            expected.computeIfAbsent(e.getValue(), ip -> new HashSet<URL>()).add(e.getKey());
+            check(e.getValue().equals(index.getValue(e.getKey())), "forward " + e.getKey());
+        }
+
+        for (int a = 0; a <= 100; a++) {
+            IPAddress ip = new IPAddress(a);
+            Set<URL> urls = expected.getOrDefault(ip, new HashSet<URL>());
+            Set<URL> seen = new HashSet<URL>();
+
+            for (Iterator<URL> it = index.getURLs(ip); it.hasNext(); )
+                check(seen.add(it.next()), "a URL is listed once for " + ip);
+
+            check(seen.equals(urls), "the URLs of " + ip);
+            check(index.countURLs(ip) == urls.size(), "the number of URLs of " + ip);
+        }
+    }
+
+    private static URL name(int i) {
+        return new URL("host" + i + ".sdsu.edu");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
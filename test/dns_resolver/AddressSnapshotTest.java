@@ -0,0 +1,126 @@
+package dns_resolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import data_structures.Hash;
+import interfaces.HashI;
+
+/**
+ * Checks that a table written by the AddressSnapshot is read back the same, and that a
+ * snapshot that is cut short, has bytes after the last entry, or has the wrong magic number
+ * or version is refused. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin dns_resolver.AddressSnapshotTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class AddressSnapshotTest {
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path file = dir.resolve("addresses.bin");
+        try {
+            roundTrip(file);
+            corrupt(file);
+            failedWrite(file);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+        System.out.println("AddressSnapshotTest passed");
+    }
+
+    private static void roundTrip(Path file) throws IOException {
+        Hash<URL, IPAddress> table = new Hash<URL, IPAddress>(16);
+        AddressSnapshot.write(table, file.toString());
+        check(AddressSnapshot.read(file.toString()).isEmpty(), "an empty table");
+
+        for (int i = 0; i < 5000; i++)
+            table.add(new URL("host" + i + ".sdsu.edu"), new IPAddress(0x0A000000 + i));
+        table.add(new URL("b\u00fccher.example"), new IPAddress("255.255.255.255"));
+        table.add(new URL("x".repeat(0xFFFF)), new IPAddress(0));
+
+        AddressSnapshot.write(table, file.toString());
+        HashI<URL, IPAddress> read = AddressSnapshot.read(file.toString());
+
+        check(read.size() == table.size(), "as many entries as written");
+        for (URL url : table)
+            check(table.getValue(url).equals(read.getValue(url)), "the address of " + url);
+
+        // Read into a given table, which keeps what it had
+        Hash<URL, IPAddress> other = new Hash<URL, IPAddress>(16);
+        other.add(new URL("other.example"), new IPAddress(1));
+        AddressSnapshot.read(file.toString(), other);
+        check(other.size() == table.size() + 1 && other.contains(new URL("other.example")), "read into a table");
+    }
+
+    private static void corrupt(Path file) throws IOException {
+        Hash<URL, IPAddress> table = new Hash<URL, IPAddress>(16);
+        for (int i = 0; i < 20; i++)
+            table.add(new URL("host" + i + ".sdsu.edu"), new IPAddress(i));
+        AddressSnapshot.write(table, file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Cut short anywhere, in the header, in a length, a URL or an address
+        for (int length = 0; length < bytes.length; length++)
+            refused(file, Arrays.copyOf(bytes, length), "cut after " + length + " bytes");
+
+        refused(file, Arrays.copyOf(bytes, bytes.length + 1), "a byte after the last entry");
+
+        for (int at : new int[] { 0, 4 }) {
+            byte[] bad = bytes.clone();
+            bad[at + 3] ^= 1;
+            refused(file, bad, at == 0 ? "bad magic" : "bad version");
+        }
+
+        // A count larger than the file can hold
+        byte[] bad = bytes.clone();
+        bad[8] = 0x7F;
+        refused(file, bad, "a count that does not fit the file");
+        bad[8] = (byte) 0x80;
+        refused(file, bad, "a negative count");
+
+        Files.write(file, bytes);
+        check(AddressSnapshot.read(file.toString()).size() == 20, "the original snapshot still reads");
+    }
+
+    /**
+     * A URL that is too long fails the write, and the old snapshot is kept
+     * with no temporary file left behind
+     */
+    private static void failedWrite(Path file) throws IOException {
+        byte[] before = Files.readAllBytes(file);
+        Hash<URL, IPAddress> table = new Hash<URL, IPAddress>(16);
+        table.add(new URL("x".repeat(0x10000)), new IPAddress(0));
+
+        try {
+            AddressSnapshot.write(table, file.toString());
+            throw new AssertionError("a URL of 65536 bytes does not fit a snapshot");
+        } catch (IOException e) {
+            // expected
+        }
+
+        check(Arrays.equals(before, Files.readAllBytes(file)), "the old snapshot is kept");
+        check(!Files.exists(file.resolveSibling(file.getFileName() + ".tmp")), "no temporary file is left");
+    }
+
+    private static void refused(Path file, byte[] bytes, String what) throws IOException {
+        Files.write(file, bytes);
+        try {
+            AddressSnapshot.read(file.toString());
+            throw new AssertionError("a snapshot with " + what + " is read");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
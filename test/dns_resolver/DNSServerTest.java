@@ -0,0 +1,162 @@
+package dns_resolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import data_structures.Hash;
+
+/**
+ * Sends DNS queries to a DNSServer on the loopback address and checks the response code of
+ * every answer: a known name, an unknown name, garbage, a class other than IN, a name longer
+ * than 255 bytes, an unsupported opcode and a lookup that fails. The server must keep
+ * answering after every one of them. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin dns_resolver.DNSServerTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class DNSServerTest {
+
+    private static final int NOERROR = 0, FORMERR = 1, SERVFAIL = 2, NXDOMAIN = 3, NOTIMP = 4, REFUSED = 5;
+    private static final int TYPE_A = 1, TYPE_AAAA = 28;
+    private static final int CLASS_IN = 1, CLASS_CH = 3, CLASS_ANY = 255;
+
+    private static int id;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // A table whose lookups fail for one name, like a broken backing table would
+        Hash<URL, IPAddress> url2ip = new Hash<URL, IPAddress>(16) {
+            public IPAddress getValue(URL key) {
+                if (key.toString().equals("broken.sdsu.edu"))
+                    throw new IllegalStateException("the table failed");
+                return super.getValue(key);
+            }
+        };
+        url2ip.add(new URL("edwards.sdsu.edu"), new IPAddress("130.191.226.146"));
+
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        DNSServer server = new DNSServer(url2ip, 0);
+        Thread thread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(2000);
+            socket.connect(InetAddress.getLoopbackAddress(), server.getPort());
+
+            ByteBuffer answer = ask(socket, query(0, "edwards.sdsu.edu", TYPE_A, CLASS_IN));
+            check(rcode(answer) == NOERROR && answers(answer) == 1, "a known name is answered");
+            check(answer.getInt(answer.limit() - 4) == new IPAddress("130.191.226.146").toInt(), "its address");
+
+            answer = ask(socket, query(0, "EDWARDS.sdsu.EDU", TYPE_A, CLASS_ANY));
+            check(rcode(answer) == NOERROR && answers(answer) == 1, "names are not case sensitive");
+
+            answer = ask(socket, query(0, "edwards.sdsu.edu", TYPE_AAAA, CLASS_IN));
+            check(rcode(answer) == NOERROR && answers(answer) == 0, "a known name without an IPv6 address");
+
+            check(rcode(ask(socket, query(0, "unknown.sdsu.edu", TYPE_A, CLASS_IN))) == NXDOMAIN, "an unknown name");
+            check(rcode(ask(socket, query(0, "edwards.sdsu.edu", TYPE_A, CLASS_CH))) == REFUSED, "the CHAOS class");
+            check(rcode(ask(socket, query(2, "edwards.sdsu.edu", TYPE_A, CLASS_IN))) == NOTIMP, "a status query");
+
+            answer = ask(socket, query(0, "broken.sdsu.edu", TYPE_A, CLASS_IN));
+            check(rcode(answer) == SERVFAIL && answer.getShort(4) == 1, "a failed lookup, with its question");
+
+            // Garbage after the header, a compression pointer where the name should be
+            byte[] garbage = query(0, "edwards.sdsu.edu", TYPE_A, CLASS_IN);
+            garbage[12] = (byte) 0xC0;
+            check(rcode(ask(socket, garbage)) == FORMERR, "a name that is not a name");
+
+            // A name cut off in the middle of a label
+            byte[] cut = query(0, "edwards.sdsu.edu", TYPE_A, CLASS_IN);
+            check(rcode(ask(socket, Arrays.copyOf(cut, 20))) == FORMERR, "a packet cut short");
+
+            // 4 labels of 63 bytes take 4 * 64 + 1 = 257 bytes, 3 of them and one of 61 take 255
+            String label = "a".repeat(63);
+            String longest = label + "." + label + "." + label + "." + "a".repeat(61);
+            check(rcode(ask(socket, query(0, longest, TYPE_A, CLASS_IN))) == NXDOMAIN, "a name of 255 bytes");
+            check(rcode(ask(socket, query(0, longest + "a", TYPE_A, CLASS_IN))) == FORMERR, "a name of 256 bytes");
+
+            // Too short for a header, there is nothing to answer
+            socket.send(new DatagramPacket(new byte[5], 5));
+            try {
+                socket.receive(new DatagramPacket(new byte[512], 512));
+                throw new AssertionError("a packet without a header is ignored");
+            } catch (SocketTimeoutException e) {
+                // expected
+            }
+
+            check(rcode(ask(socket, query(0, "edwards.sdsu.edu", TYPE_A, CLASS_IN))) == NOERROR, "still answering");
+        } finally {
+            server.close();
+            thread.join();
+        }
+
+        if (failure.get() != null)
+            throw new AssertionError("The server failed", failure.get());
+        System.out.println("DNSServerTest passed");
+    }
+
+    /**
+     * Send a query and wait for the response with the same id
+     */
+    private static ByteBuffer ask(DatagramSocket socket, byte[] query) throws IOException {
+        socket.send(new DatagramPacket(query, query.length));
+
+        DatagramPacket packet = new DatagramPacket(new byte[4096], 4096);
+        socket.receive(packet);
+        ByteBuffer answer = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+
+        check(answer.limit() >= 12 && answer.getShort(0) == ByteBuffer.wrap(query).getShort(0), "the id of the answer");
+        check((answer.getShort(2) & 0x8000) != 0, "the answer is a response");
+        return answer;
+    }
+
+    private static byte[] query(int opcode, String name, int type, int qclass) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.putShort((short) ++id);
+        header.putShort((short) (opcode << 11 | 0x0100)); // RD set
+        header.putShort((short) 1);
+        out.write(header.array(), 0, 12);
+
+        for (String part : name.split("\\.")) {
+            out.write(part.length());
+            out.write(part.getBytes(StandardCharsets.US_ASCII), 0, part.length());
+        }
+        out.write(0);
+
+        out.write(type >>> 8);
+        out.write(type);
+        out.write(qclass >>> 8);
+        out.write(qclass);
+        return out.toByteArray();
+    }
+
+    private static int rcode(ByteBuffer answer) {
+        return answer.getShort(2) & 0xF;
+    }
+
+    private static int answers(ByteBuffer answer) {
+        return answer.getShort(6) & 0xFFFF;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,159 @@
+package dns_resolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import data_structures.Hash;
+
+/**
+ * Checks that HostName puts names in lower case without a trailing dot, reverses their
+ * labels, orders them label by label from the right, consistently with equals, and that the
+ * intern pool shares instances and stays bounded. Run it with the classes of src on the
+ * class path:
+ * <pre>
+ * java -cp bin dns_resolver.HostNameTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class HostNameTest {
+
+    public static void main(String[] args) {
+        normalize();
+        reverse();
+        order();
+        randomNames(new Random(16), 20000);
+        intern();
+        System.out.println("HostNameTest passed");
+    }
+
+    private static void normalize() {
+        check(HostName.normalize("Edwards.SDSU.edu.").equals("edwards.sdsu.edu"), "lower case, no trailing dot");
+        check(HostName.normalize("EDU").equals("edu"), "a single label");
+        check(HostName.normalize(".").equals(""), "the root");
+        check(HostName.normalize("").equals(""), "an empty name");
+        check(HostName.normalize("x-1.Example_Z.org").equals("x-1.example_z.org"), "only A to Z change");
+
+        // A name that is already normal is not copied
+        String name = "edwards.sdsu.edu";
+        check(HostName.normalize(name) == name, "a normal name is returned as it is");
+
+        HostName host = new HostName("Edwards.SDSU.EDU.");
+        check(host.toString().equals("edwards.sdsu.edu"), "toString");
+        check(host.equals(new HostName("edwards.sdsu.edu")), "equal names in any case");
+        check(host.hashCode() == "edwards.sdsu.edu".hashCode(), "the hash code of the normal name");
+        check(!host.equals("edwards.sdsu.edu"), "a HostName is not a String");
+    }
+
+    private static void reverse() {
+        check(HostName.reverse("edwards.sdsu.edu").equals("edu.sdsu.edwards"), "three labels");
+        check(HostName.reverse("edu").equals("edu"), "one label");
+        check(HostName.reverse("").equals(""), "no labels");
+        check(new HostName("WWW.Example.COM.").getReversed().equals("com.example.www"), "getReversed");
+    }
+
+    private static void order() {
+        // Sorted by zone: the hosts of sdsu.edu are together, and a zone comes before its hosts
+        List<String> sorted = Arrays.asList(
+                "edu", "sdsu.edu", "a.sdsu.edu", "edwards.sdsu.edu", "x.edwards.sdsu.edu",
+                "sdsu-east.edu", "ucsd.edu", "example.org", "a.example.org");
+
+        List<HostName> hosts = new ArrayList<HostName>();
+        for (String name : sorted)
+            hosts.add(new HostName(name.toUpperCase()));
+        Collections.shuffle(hosts, new Random(1));
+        Collections.sort(hosts);
+
+        for (int i = 0; i < sorted.size(); i++)
+            check(hosts.get(i).toString().equals(sorted.get(i)), "position " + i + " is " + sorted.get(i));
+
+        // The end of a label sorts before '-', which is smaller than '.'
+        check(new HostName("ab.c").compareTo(new HostName("ab-x.c")) < 0, "a label before a longer one");
+        check(new HostName("b.a.c").compareTo(new HostName("a-b.c")) < 0, "zone a.c before the label a-b");
+    }
+
+    /**
+     * compareTo is antisymmetric and zero exactly for equal names, and a
+     * sorted list has its top level labels in order
+     */
+    private static void randomNames(Random random, int count) {
+        List<HostName> hosts = new ArrayList<HostName>();
+        for (int i = 0; i < count; i++)
+            hosts.add(new HostName(randomName(random)));
+
+        for (int i = 0; i < count; i++) {
+            HostName a = hosts.get(i), b = hosts.get(random.nextInt(count));
+            int ab = a.compareTo(b), ba = b.compareTo(a);
+
+            check(Integer.signum(ab) == -Integer.signum(ba), "antisymmetric for " + a + " and " + b);
+            check((ab == 0) == a.equals(b), "zero only for equal names, " + a + " and " + b);
+            check(!a.equals(b) || a.hashCode() == b.hashCode(), "equal names have equal hash codes");
+        }
+
+        Collections.sort(hosts);
+        for (int i = 1; i < count; i++) {
+            HostName previous = hosts.get(i - 1), host = hosts.get(i);
+            check(previous.compareTo(host) <= 0, "sorted at " + i);
+            check(label(previous, 0).compareTo(label(host, 0)) <= 0, "the top level labels are in order at " + i);
+        }
+    }
+
+    /**
+     * Interned names are shared and find each other in a Hash by reference,
+     * and the pool evicts the least recently used names when it is full
+     */
+    private static void intern() {
+        HostName host = HostName.intern("Edwards.SDSU.edu.");
+        check(HostName.intern("edwards.sdsu.edu") == host, "one instance for the name in any case");
+        check(host.equals(new HostName("EDWARDS.sdsu.edu")), "an interned name equals a new one");
+
+        Hash<HostName, Integer> hash = new Hash<HostName, Integer>(16);
+        hash.add(host, 1);
+        check(hash.getValue(HostName.intern("EDWARDS.SDSU.EDU")) == 1, "an interned key is found");
+
+        // Fill the pool twice over, it never holds more than its capacity
+        for (int i = 0; i < 2 * HostName.POOL_CAPACITY; i++) {
+            HostName.intern("host" + i + ".sdsu.edu");
+            // The hot name is used all the time, so it stays in the pool
+            if (i % 1000 == 0)
+                check(HostName.intern("edwards.sdsu.edu") == host, "a hot name keeps its instance at " + i);
+        }
+        check(HostName.poolSize() == HostName.POOL_CAPACITY, "the pool is bounded");
+
+        // A name that was evicted gets a new instance, equal to the old one
+        HostName evicted = HostName.intern("host0.sdsu.edu");
+        check(evicted.equals(new HostName("host0.sdsu.edu")), "an evicted name is interned again");
+        check(HostName.poolSize() == HostName.POOL_CAPACITY, "interning it again evicts another name");
+    }
+
+    // Small alphabet and few labels, so names share zones and collide often
+    private static String randomName(Random random) {
+        String chars = "ab-AB";
+        StringBuilder sb = new StringBuilder();
+        int labels = 1 + random.nextInt(3);
+
+        for (int l = 0; l < labels; l++) {
+            if (l > 0)
+                sb.append('.');
+            int length = 1 + random.nextInt(3);
+            for (int i = 0; i < length; i++)
+                sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        return sb.toString();
+    }
+
+    // The label at the index, counted from the right
+    private static String label(HostName host, int index) {
+        return host.getReversed().split("\\.")[index];
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,213 @@
+package dns_resolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks HostTrie lookups and zone listings against a slow model of RFC 4592 wildcard
+ * matching, and checks that the trie is path compressed. Run it with the classes of src on
+ * the class path:
+ * <pre>
+ * java -cp bin dns_resolver.HostTrieTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class HostTrieTest {
+
+    private static final String[] LABELS = { "a", "b", "c", "www", "mail", "sdsu", "edu", "com", "x" };
+
+    public static void main(String[] args) {
+        wildcards();
+        randomNames(new Random(17), 3000, 100000);
+        largeZone(5000);
+        System.out.println("HostTrieTest passed");
+    }
+
+    private static void wildcards() {
+        HostTrie<String> trie = new HostTrie<String>();
+        trie.add("edwards.sdsu.edu", "edwards");
+        trie.add("*.sdsu.edu", "wildcard");
+        trie.add("WWW.SDSU.edu", "www");
+        trie.add("a.b.sdsu.edu", "a.b");
+
+        check("edwards".equals(trie.lookup("Edwards.sdsu.edu")), "exact name in any case");
+        check("www".equals(trie.lookup("www.sdsu.edu")), "exact name added in upper case");
+        check("wildcard".equals(trie.lookup("foo.sdsu.edu")), "a name below the zone gets the wildcard");
+        check("wildcard".equals(trie.lookup("x.y.sdsu.edu")), "the wildcard covers more than one label");
+        check(trie.lookup("sdsu.edu") == null, "the wildcard does not cover its own zone");
+        check(trie.lookup("b.sdsu.edu") == null, "an empty non-terminal is not answered by the wildcard");
+        check(trie.lookup("x.b.sdsu.edu") == null, "only the wildcard of the closest encloser applies");
+        check(trie.lookup("x.edwards.sdsu.edu") == null, "a host is the closest encloser of the names below it");
+        check(trie.lookup("edu") == null && trie.lookup("nothing.com") == null, "no record and no wildcard");
+
+        trie.add("*.b.sdsu.edu", "b wildcard");
+        check("b wildcard".equals(trie.lookup("x.b.sdsu.edu")), "the wildcard of the closest encloser");
+        check("a.b".equals(trie.lookup("a.b.sdsu.edu")), "an exact name beats the wildcard of its zone");
+        check(trie.size() == 5, "size counts exact and wildcard records");
+
+        List<String> names = list(trie.zone("sdsu.edu"));
+        check(new TreeSet<String>(names).equals(new TreeSet<String>(List.of(
+                "edwards.sdsu.edu", "*.sdsu.edu", "www.sdsu.edu", "a.b.sdsu.edu", "*.b.sdsu.edu"))),
+                "zone listing: " + names);
+        check(list(trie.zone("nope.org")).isEmpty(), "a zone that is not in the trie");
+    }
+
+    private static void randomNames(Random random, int adds, int lookups) {
+        HostTrie<String> trie = new HostTrie<String>();
+        Map<String, String> exact = new HashMap<String, String>();
+        Map<String, String> wild = new HashMap<String, String>();
+
+        for (int i = 0; i < adds; i++) {
+            String name = randomName(random);
+            String value = "v" + i;
+
+            if (random.nextInt(5) == 0) {
+                trie.add(name.isEmpty() ? "*" : "*." + name, value);
+                wild.put(name, value);
+            } else if (!name.isEmpty()) {
+                trie.add(name, value);
+                exact.put(name, value);
+            }
+
+            if (i % 100 == 0)
+                checkCompressed(trie.root, true);
+        }
+
+        check(trie.size() == exact.size() + wild.size(), "size");
+        checkCompressed(trie.root, true);
+
+        Set<String> existing = new HashSet<String>();
+        existing.add("");
+        for (String name : exact.keySet())
+            addWithParents(existing, name);
+        for (String name : wild.keySet())
+            addWithParents(existing, name);
+
+        for (int i = 0; i < lookups; i++) {
+            String name = randomName(random);
+            String expected = expected(name, exact, wild, existing);
+            check(same(trie.lookup(name), expected), "lookup " + name + " expected " + expected);
+        }
+
+        for (String zone : new String[] { "", "edu", "sdsu.edu", "a.sdsu.edu", "b.a" }) {
+            Set<String> expected = new TreeSet<String>();
+            for (String name : exact.keySet())
+                if (below(name, zone))
+                    expected.add(name);
+            for (String name : wild.keySet())
+                if (below(name, zone))
+                    expected.add(name.isEmpty() ? "*" : "*." + name);
+
+            List<String> names = list(trie.zone(zone));
+            check(names.size() == expected.size() && expected.equals(new TreeSet<String>(names)),
+                    "zone " + zone + " lists every name once");
+        }
+    }
+
+    private static void largeZone(int hosts) {
+        HostTrie<Integer> trie = new HostTrie<Integer>();
+        for (int i = 0; i < hosts; i++)
+            trie.add("www.host" + i + ".com", i);
+
+        for (int i = 0; i < hosts; i++)
+            check(trie.lookup("www.host" + i + ".com") == i, "host " + i + " of a large zone");
+        check(trie.lookup("host1.com") == null, "an empty non-terminal of a large zone");
+        check(list(trie.zone("com")).size() == hosts, "every host of a large zone is listed");
+        checkCompressed(trie.root, true);
+
+        // com has one node, and every host below it is a single node with a two label edge
+        HostTrie.Node<Integer> com = trie.root.child("com", 0, 3);
+        HostTrie.Node<Integer> host = com.child("host7", 0, 5);
+        check(com.childCount == hosts && "www.host7".equals(host.edge) && host.children == null,
+                "a host alone in its zone is one node");
+    }
+
+    // The value RFC 4592 gives for a name, found the slow way
+    private static String expected(String name, Map<String, String> exact, Map<String, String> wild,
+                                   Set<String> existing) {
+        if (exact.containsKey(name))
+            return exact.get(name);
+        if (existing.contains(name))
+            return null;
+
+        String encloser = name;
+        while (!existing.contains(encloser))
+            encloser = parent(encloser);
+
+        return wild.get(encloser);
+    }
+
+    // Every node except the root has a record or more than one child
+    private static <V> void checkCompressed(HostTrie.Node<V> node, boolean isRoot) {
+        List<HostTrie.Node<V>> children = new ArrayList<HostTrie.Node<V>>();
+        if (node.children != null)
+            for (HostTrie.Node<V> child : node.children)
+                if (child != null)
+                    children.add(child);
+
+        check(children.size() == node.childCount, "childCount");
+        check(isRoot || node.value != null || node.wildcard != null || children.size() > 1,
+                "a node without records has more than one child");
+        for (int i = 1; node.childCount <= HostTrie.MAX_ARRAY && i < children.size(); i++)
+            check(firstLabel(children.get(i - 1)).compareTo(firstLabel(children.get(i))) < 0, "children are sorted");
+
+        for (HostTrie.Node<V> child : children)
+            checkCompressed(child, false);
+    }
+
+    private static String firstLabel(HostTrie.Node<?> node) {
+        return node.edge.substring(node.edge.lastIndexOf('.') + 1);
+    }
+
+    private static String randomName(Random random) {
+        int labels = random.nextInt(5);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < labels; i++) {
+            if (i > 0)
+                sb.append('.');
+            sb.append(LABELS[random.nextInt(LABELS.length)]);
+        }
+
+        return sb.toString();
+    }
+
+    private static void addWithParents(Set<String> names, String name) {
+        for (; !name.isEmpty(); name = parent(name))
+            names.add(name);
+    }
+
+    private static String parent(String name) {
+        int dot = name.indexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    private static boolean below(String name, String zone) {
+        return zone.isEmpty() || name.equals(zone) || name.endsWith("." + zone);
+    }
+
+    private static List<String> list(Iterator<String> it) {
+        List<String> names = new ArrayList<String>();
+        while (it.hasNext())
+            names.add(it.next());
+        return names;
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
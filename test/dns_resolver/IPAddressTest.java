@@ -0,0 +1,80 @@
+package dns_resolver;
+
+/**
+ * Checks that IPAddress.parse reads valid dotted-decimal addresses, including leading zeros
+ * and a part of a longer text, and refuses everything else. Run it with the classes of src on
+ * the class path:
+ * <pre>
+ * java -cp bin dns_resolver.IPAddressTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class IPAddressTest {
+
+    public static void main(String[] args) {
+        valid();
+        invalid();
+        ordering();
+        System.out.println("IPAddressTest passed");
+    }
+
+    private static void valid() {
+        IPAddress ip = new IPAddress("130.191.226.146");
+        check(ip.getNetwork() == 130 && ip.getSubnet() == 191 && ip.getSubnet2() == 226 && ip.getHost() == 146,
+                "the components of 130.191.226.146");
+        check(ip.toString().equals("130.191.226.146"), "toString");
+
+        check(new IPAddress("0.0.0.0").toInt() == 0, "0.0.0.0");
+        check(new IPAddress("255.255.255.255").toInt() == -1, "255.255.255.255");
+        check(new IPAddress("10.0.0.1").equals(new IPAddress(0x0A000001)), "a parsed and a packed address");
+
+        // Leading zeros are decimal, not octal
+        check(new IPAddress("01.2.3.4").equals(new IPAddress("1.2.3.4")), "01.2.3.4 is 1.2.3.4");
+        check(new IPAddress("010.0.0.1").toString().equals("10.0.0.1"), "010.0.0.1 is 10.0.0.1");
+        check(new IPAddress("001.002.003.000").toInt() == 0x01020300, "three digit components");
+
+        // Only the characters from start to end are read
+        String line = "host.sdsu.edu 10.1.2.3\n";
+        check(IPAddress.parse(line, 14, 22) == 0x0A010203, "an address in a line");
+        check(IPAddress.parse("1.2.3.45", 0, 7) == 0x01020304, "the end cuts the last component");
+    }
+
+    private static void invalid() {
+        String[] bad = {
+            "256.1.2.3", "1.2.3.256", "1.2.3.999", "1000.2.3.4", "0001.2.3.4",
+            "1.2.3", "1.2.3.4.5", "1..2.3", "1.2.3.", ".1.2.3", "...",
+            "1.2.3.4 ", " 1.2.3.4", "1.2.3.4\n", "1. 2.3.4",
+            "", "1", "a.b.c.d", "1.2.3.4x", "1.2.3.-4", "+1.2.3.4", "1,2,3,4"
+        };
+
+        for (String text : bad) {
+            try {
+                IPAddress.parse(text, 0, text.length());
+                throw new AssertionError("\"" + text + "\" is not an IP address");
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        try {
+            new IPAddress("1.2.3.4 ");
+            throw new AssertionError("the constructor refuses a trailing space");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    private static void ordering() {
+        check(new IPAddress("9.0.0.1").compareTo(new IPAddress("10.0.0.1")) < 0, "numeric order");
+        check(new IPAddress("128.0.0.0").compareTo(new IPAddress("127.255.255.255")) > 0,
+                "addresses from 128 up are not negative");
+        check(new IPAddress("1.2.3.4").hashCode() == new IPAddress(0x01020304).hashCode(), "equal hash codes");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
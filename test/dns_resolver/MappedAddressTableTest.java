@@ -0,0 +1,231 @@
+package dns_resolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks the MappedAddressTable against a HashMap with random adds and removes, checks that
+ * removing and adding for a long time with the same number of entries keeps the table and
+ * its file from growing, that the table is the same after it is opened again, and that a
+ * resize that fails leaves the old table usable. Run it with the classes of src on the class
+ * path:
+ * <pre>
+ * java -cp bin dns_resolver.MappedAddressTableTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class MappedAddressTableTest {
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("mapped");
+        try {
+            randomOperations(dir.resolve("random.table"), new Random(6), 3000, 100000);
+            churn(dir.resolve("churn.table"), 100, 200000);
+            failedResize(dir.resolve("failed.table"));
+            emptyKey(dir.resolve("empty.table"));
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator)
+                    deleteAll(file);
+            }
+            Files.delete(dir);
+        }
+        System.out.println("MappedAddressTableTest passed");
+    }
+
+    private static void randomOperations(Path file, Random random, int keys, int operations) throws IOException {
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+        MappedAddressTable table = new MappedAddressTable(file.toString(), 16);
+
+        for (int i = 0; i < operations; i++) {
+            URL key = new URL("host" + random.nextInt(keys) + ".sdsu.edu");
+            switch (random.nextInt(3)) {
+                case 0:
+                    check(table.add(key, new IPAddress(i)) == (map.putIfAbsent(key, new IPAddress(i)) == null),
+                            "add " + key);
+                    break;
+                case 1:
+                    check(table.remove(key) == (map.remove(key) != null), "remove " + key);
+                    break;
+                default:
+                    check(same(table.getValue(key), map.get(key)), "getValue " + key);
+            }
+            check(table.size() == map.size(), "size after " + i + " operations");
+
+            // Opened again now and then, the file must always hold the whole table
+            if (i % 20011 == 0) {
+                table.close();
+                table = new MappedAddressTable(file.toString());
+                checkContents(table, map);
+            }
+        }
+
+        checkContents(table, map);
+        table.close();
+    }
+
+    /**
+     * Remove a key and add a new one, over and over, so the table fills up
+     * with removed slots and removed key bytes while the number of entries
+     * stays the same
+     */
+    private static void churn(Path file, int live, int rounds) throws IOException {
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+        MappedAddressTable table = new MappedAddressTable(file.toString(), 16);
+        for (int i = 0; i < live; i++) {
+            table.add(name(i), new IPAddress(i));
+            map.put(name(i), new IPAddress(i));
+        }
+
+        // A table is doubled when its live entries fill 3/8 of it, so 100 entries
+        // never need more than 512 slots, and the key heap only keeps live keys
+        // from one rebuild to the next
+        int maxSlots = 512;
+        long maxFile = 32 * 1024;
+
+        for (int i = live; i < live + rounds; i++) {
+            check(table.remove(name(i - live)), "remove " + name(i - live));
+            check(table.add(name(i), new IPAddress(i)), "add " + name(i));
+            map.remove(name(i - live));
+            map.put(name(i), new IPAddress(i));
+            check(slots(table) <= maxSlots, slots(table) + " slots after " + i + " rounds");
+            check(Files.size(file) <= maxFile, "a file of " + Files.size(file) + " bytes after " + i + " rounds");
+
+            if (i % 50021 == 0) {
+                table.close();
+                table = new MappedAddressTable(file.toString());
+                checkContents(table, map);
+            }
+        }
+
+        checkContents(table, map);
+        table.close();
+
+        table = new MappedAddressTable(file.toString());
+        checkContents(table, map);
+        table.close();
+    }
+
+    /**
+     * A resize writes the new table next to the old file first. If that
+     * fails, here because a directory is in the way, the table must still
+     * be the old one.
+     */
+    private static void failedResize(Path file) throws IOException {
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+        MappedAddressTable table = new MappedAddressTable(file.toString(), 16);
+        for (int i = 0; i < 10; i++) {
+            table.add(name(i), new IPAddress(i));
+            map.put(name(i), new IPAddress(i));
+        }
+
+        Path blocked = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectory(blocked);
+        Files.createFile(blocked.resolve("keep"));
+        long slots = slots(table);
+
+        try {
+            table.resize(1024);
+            throw new AssertionError("the resize can not write its file");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        check(slots(table) == slots, "the table keeps its size");
+        checkContents(table, map);
+        check(table.add(name(10), new IPAddress(10)) && table.remove(name(0)), "the table can still be changed");
+        map.put(name(10), new IPAddress(10));
+        map.remove(name(0));
+
+        deleteAll(blocked);
+        table.resize(1024);
+        check(slots(table) == 1024, "the resize works again");
+        checkContents(table, map);
+        table.close();
+
+        table = new MappedAddressTable(file.toString());
+        checkContents(table, map);
+        table.close();
+    }
+
+    /**
+     * A keyLength of 0 marks an empty slot, so the empty URL is rejected
+     * instead of being counted without being found
+     */
+    private static void emptyKey(Path file) throws IOException {
+        Map<URL, IPAddress> map = new HashMap<URL, IPAddress>();
+        MappedAddressTable table = new MappedAddressTable(file.toString(), 16);
+        table.add(name(0), new IPAddress(0));
+        map.put(name(0), new IPAddress(0));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                table.add(new URL(""), new IPAddress(1));
+                throw new AssertionError("the empty URL can not be added");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        check(table.size() == 1, "a rejected add does not change the size");
+
+        URL[] keys = { name(1), new URL("") };
+        IPAddress[] values = { new IPAddress(1), new IPAddress(2) };
+        try {
+            table.addAll(keys, values, keys.length);
+            throw new AssertionError("addAll rejects the empty URL");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        check(!table.contains(name(1)), "addAll adds nothing if one key is rejected");
+
+        check(!table.contains(new URL("")) && table.getValue(new URL("")) == null
+                && !table.remove(new URL("")), "lookups of the empty URL miss");
+        checkContents(table, map);
+        table.close();
+    }
+
+    private static void checkContents(MappedAddressTable table, Map<URL, IPAddress> map) {
+        int count = 0;
+        for (URL key : table) {
+            check(map.containsKey(key), "the iterator returns only keys in the map: " + key);
+            count++;
+        }
+        check(count == map.size() && table.size() == map.size(), "the iterator returns every key");
+
+        for (Map.Entry<URL, IPAddress> e : map.entrySet())
+            check(e.getValue().equals(table.getValue(e.getKey())), "value of " + e.getKey());
+    }
+
+    // The number of slots, seen through the load factor
+    private static long slots(MappedAddressTable table) {
+        return Math.round(table.size() / table.loadFactor());
+    }
+
+    private static URL name(int i) {
+        return new URL("host" + i + ".sdsu.edu");
+    }
+
+    private static void deleteAll(Path file) throws IOException {
+        if (Files.isDirectory(file))
+            try (var files = Files.list(file)) {
+                for (Path inner : (Iterable<Path>) files::iterator)
+                    deleteAll(inner);
+            }
+        Files.deleteIfExists(file);
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,110 @@
+package dns_resolver;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import data_structures.FilteredHash;
+import data_structures.Hash;
+
+/**
+ * Checks ResolverService batches and streams against lookups one at a time in the table.
+ * Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin dns_resolver.ResolverServiceTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class ResolverServiceTest {
+
+    // More than one chunk of lookups, so the batch is split across threads
+    private static final int HOSTS = 5000;
+
+    public static void main(String[] args) throws IOException {
+        Hash<URL, IPAddress> url2ip = new Hash<URL, IPAddress>();
+        for (int i = 0; i < HOSTS; i++)
+            url2ip.add(new URL("host" + i + ".sdsu.edu"), new IPAddress(0x0A000000 + i));
+
+        try (ResolverService service = new ResolverService(url2ip)) {
+            batch(service, url2ip, 10);
+            batch(service, url2ip, 3 * HOSTS);
+            stream(service);
+            largeStream(service);
+        }
+
+        // An incremental Hash in the middle of a resize is drained before the threads read it
+        Hash<URL, IPAddress> resizing = new Hash<URL, IPAddress>(64, true);
+        for (int i = 0; !resizing.isRehashing(); i++)
+            resizing.add(new URL("host" + i + ".sdsu.edu"), new IPAddress(0x0A000000 + i));
+        try (ResolverService service = new ResolverService(resizing)) {
+            batch(service, resizing, 3 * HOSTS);
+            check(!resizing.isRehashing(), "a parallel batch finishes the resize first");
+        }
+
+        // So is one behind a FilteredHash, as DNS_Resolver hands it to the service
+        Hash<URL, IPAddress> wrapped = new Hash<URL, IPAddress>(64, true);
+        FilteredHash<URL, IPAddress> filtered = new FilteredHash<URL, IPAddress>(wrapped);
+        for (int i = 0; !wrapped.isRehashing(); i++)
+            filtered.add(new URL("host" + i + ".sdsu.edu"), new IPAddress(0x0A000000 + i));
+        try (ResolverService service = new ResolverService(filtered)) {
+            batch(service, wrapped, 3 * HOSTS);
+            check(!wrapped.isRehashing(), "the resize behind the filter is finished");
+        }
+        System.out.println("ResolverServiceTest passed");
+    }
+
+    private static void batch(ResolverService service, Hash<URL, IPAddress> url2ip, int count) {
+        URL[] names = new URL[count];
+        for (int i = 0; i < count; i++)
+            names[i] = new URL("host" + (i * 7 % (2 * HOSTS)) + ".sdsu.edu");
+
+        IPAddress[] addresses = service.resolve(names);
+        check(addresses.length == count, "one address for every URL");
+        for (int i = 0; i < count; i++) {
+            IPAddress expected = url2ip.getValue(names[i]);
+            check(expected == null ? addresses[i] == null : expected.equals(addresses[i]),
+                    "batch of " + count + " at " + names[i]);
+        }
+    }
+
+    private static void stream(ResolverService service) throws IOException {
+        String in = "host1.sdsu.edu\n"
+                + "\n"
+                + "   \t \n"
+                + "  host2.sdsu.edu  \r\n"
+                + "nowhere.sdsu.edu\n";
+        StringWriter out = new StringWriter();
+
+        long count = service.resolveStream(new StringReader(in), out);
+        String nl = System.lineSeparator();
+        check(count == 3, "blank and whitespace-only lines are skipped, not looked up");
+        check(out.toString().equals("host1.sdsu.edu 10.0.0.1" + nl
+                + "host2.sdsu.edu 10.0.0.2" + nl
+                + "nowhere.sdsu.edu unknown" + nl), "stream output: " + out);
+    }
+
+    private static void largeStream(ResolverService service) throws IOException {
+        // More lines than one batch, so the stream is read and resolved in several rounds
+        int lines = 150000;
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < lines; i++)
+            in.append("host").append(i % (2 * HOSTS)).append(".sdsu.edu\n");
+        StringWriter out = new StringWriter();
+
+        check(service.resolveStream(new StringReader(in.toString()), out) == lines, "every line is resolved");
+        String[] results = out.toString().split(System.lineSeparator());
+        check(results.length == lines, "one output line for every input line");
+        for (int i = 0; i < lines; i++) {
+            int host = i % (2 * HOSTS);
+            String address = host < HOSTS ? new IPAddress(0x0A000000 + host).toString() : "unknown";
+            check(results[i].equals("host" + host + ".sdsu.edu " + address), "line " + i + ": " + results[i]);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,93 @@
+package dns_resolver;
+
+import java.util.Random;
+
+/**
+ * Checks RoutingTable lookups against a linear scan of every added block, which finds the
+ * longest matching prefix the slow way. Run it with the classes of src on the class path:
+ * <pre>
+ * java -cp bin dns_resolver.RoutingTableTest
+ * </pre>
+ *
+ * @author Khaled Elsayed
+ * CS 310 - Edwards
+ */
+public class RoutingTableTest {
+
+    public static void main(String[] args) {
+        cidr();
+        randomBlocks(new Random(11), 2000, 200000);
+        System.out.println("RoutingTableTest passed");
+    }
+
+    private static void cidr() {
+        RoutingTable<String> table = new RoutingTable<String>();
+        check(table.lookup(new IPAddress("130.191.1.1")) == null, "an empty table matches nothing");
+
+        table.add("0.0.0.0/0", "default");
+        table.add("130.191.0.0/16", "sdsu");
+        table.add("130.191.1.0/24", "cs");
+        table.add("130.191.1.7/32", "host");
+
+        check("host".equals(table.lookup(new IPAddress("130.191.1.7"))), "/32 block");
+        check("cs".equals(table.lookup(new IPAddress("130.191.1.8"))), "/24 block");
+        check("sdsu".equals(table.lookup(new IPAddress("130.191.2.1"))), "/16 block");
+        check("default".equals(table.lookup(new IPAddress("8.8.8.8"))), "default route");
+        check(table.size() == 4, "size after four blocks");
+
+        table.add("130.191.1.0/24", "cs2");
+        check("cs2".equals(table.lookup(new IPAddress("130.191.1.8"))), "a block added again gets the new value");
+        check(table.size() == 4, "a block added again is not counted twice");
+
+        table.makeEmpty();
+        check(table.isEmpty() && table.lookup(new IPAddress("8.8.8.8")) == null, "makeEmpty");
+    }
+
+    private static void randomBlocks(Random random, int blocks, int lookups) {
+        RoutingTable<Integer> table = new RoutingTable<Integer>();
+        int[] prefixes = new int[blocks];
+        int[] lengths = new int[blocks];
+
+        for (int i = 0; i < blocks; i++) {
+            // Short and long blocks, some of them nested in others
+            lengths[i] = random.nextInt(33);
+            int base = i > 0 && random.nextBoolean() ? prefixes[random.nextInt(i)] : random.nextInt();
+            prefixes[i] = base & mask(lengths[i]);
+            table.add(prefixes[i], lengths[i], i);
+        }
+
+        for (int q = 0; q < lookups; q++) {
+            int address = q % 2 == 0 ? random.nextInt() : prefixes[random.nextInt(blocks)] ^ random.nextInt(1 << 12);
+            Integer expected = scan(prefixes, lengths, address);
+            Integer found = table.lookup(address);
+
+            check(expected == null ? found == null : expected.equals(found),
+                    "lookup of " + new IPAddress(address) + " found " + found + ", expected " + expected);
+        }
+    }
+
+    /**
+     * The longest matching block, the one added last if it was added more than once
+     */
+    private static Integer scan(int[] prefixes, int[] lengths, int address) {
+        Integer best = null;
+        int bestLength = -1;
+
+        for (int i = 0; i < prefixes.length; i++)
+            if ((address & mask(lengths[i])) == prefixes[i] && lengths[i] >= bestLength) {
+                best = i;
+                bestLength = lengths[i];
+            }
+
+        return best;
+    }
+
+    private static int mask(int length) {
+        return length == 0 ? 0 : -1 << (32 - length);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+}